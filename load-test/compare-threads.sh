@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Compares the throughput of the API with platform threads and with virtual threads.
+# Requires curl, jq and wrk. Build the jar first: ./mvnw -DskipTests package
+#
+# Usage: load-test/compare-threads.sh [connections] [duration]
+# Tomcat is started with room for every connection (TOMCAT_MAX_CONNECTIONS, TOMCAT_ACCEPT_COUNT), so the
+# comparison measures the request threads rather than connections refused by the default limits.
+set -euo pipefail
+
+CONNECTIONS=${1:-5000}
+DURATION=${2:-60s}
+THREADS=${WRK_THREADS:-8}
+JAR=${JAR:-target/desafio-pitang-api-1.0.0-SNAPSHOT.jar}
+TOMCAT_MAX_CONNECTIONS=${TOMCAT_MAX_CONNECTIONS:-10000}
+TOMCAT_ACCEPT_COUNT=${TOMCAT_ACCEPT_COUNT:-1000}
+BASE_URL=http://localhost:8080/api
+
+ulimit -n 65535 || echo "could not raise the open files limit, $CONNECTIONS connections may fail"
+
+run() {
+  local virtual=$1
+  echo "=== spring.threads.virtual.enabled=$virtual ==="
+  java -Djdk.tracePinnedThreads=short -jar "$JAR" --spring.threads.virtual.enabled="$virtual" \
+    --server.tomcat.max-connections="$TOMCAT_MAX_CONNECTIONS" --server.tomcat.accept-count="$TOMCAT_ACCEPT_COUNT" \
+    > "load-test/app-virtual-$virtual.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null" EXIT
+
+  until curl -sf "$BASE_URL/users?size=1" > /dev/null; do sleep 1; done
+
+  curl -sf -X POST "$BASE_URL/users" -H 'Content-Type: application/json' -d '{
+    "firstName": "Load", "lastName": "Test", "email": "load@test.com", "birthday": "1990-05-01",
+    "login": "load.test", "password": "load", "phone": "988888888",
+    "cars": [{"year": 2018, "licensePlate": "LOD-0001", "model": "Audi", "color": "White"}]
+  }' > /dev/null
+  local token
+  token=$(curl -sf -X POST "$BASE_URL/signin" -H 'Content-Type: application/json' \
+    -d '{"login": "load.test", "password": "load"}' | jq -r .token)
+
+  # Warm up the JIT, the caches and the connection pool before measuring.
+  wrk -t"$THREADS" -c100 -d10s -H "Authorization: Bearer $token" "$BASE_URL/me" > /dev/null
+  wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency -H "Authorization: Bearer $token" "$BASE_URL/me"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+  echo "pinned virtual threads: $(grep -c 'VirtualThread' "load-test/app-virtual-$virtual.log" || true)"
+}
+
+run false
+run true
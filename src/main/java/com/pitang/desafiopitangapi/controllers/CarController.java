@@ -1,12 +1,16 @@
 package com.pitang.desafiopitangapi.controllers;
 
+import com.pitang.desafiopitangapi.dto.CarFilterDTO;
+import com.pitang.desafiopitangapi.dto.CarView;
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
 import com.pitang.desafiopitangapi.exceptions.BusinessException;
 import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.service.CarService;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -26,37 +30,65 @@ public class CarController {
      * Registers a new car in the system.
      *
      * @param car The car to be registered.
-     * @param request The HTTP request containing authentication information.
+     * @param user The logged-in user, resolved by the security filter.
      * @return A {@link ResponseEntity} containing the created car and an HTTP status of {@code CREATED}.
      * @throws BusinessException if validation of the car fails.
      */
     @PostMapping
-    public ResponseEntity<Car> register(@RequestBody Car car, HttpServletRequest request) throws BusinessException {
-        return ResponseEntity.status(HttpStatus.CREATED).body(carService.register(car, request));
+    public ResponseEntity<Car> register(@RequestBody Car car, @AuthenticationPrincipal User user) throws BusinessException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(carService.register(car, user));
     }
 
     /**
-     * Retrieves all cars associated with the currently logged-in user.
+     * Registers a list of cars for the logged-in user at once.
      *
-     * @param request The HTTP request containing authentication information.
-     * @return A {@link ResponseEntity} containing a list of cars.
+     * @param cars The cars to be registered.
+     * @param user The logged-in user, resolved by the security filter.
+     * @return A {@link ResponseEntity} containing the created cars and an HTTP status of {@code CREATED}.
+     * @throws BusinessException if validation of any car fails or a license plate already exists.
+     */
+    @PostMapping("batch")
+    public ResponseEntity<List<Car>> registerAll(@RequestBody List<Car> cars, @AuthenticationPrincipal User user) throws BusinessException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(carService.registerAll(cars, user));
+    }
+
+    /**
+     * Retrieves a page of the cars associated with the currently logged-in user, optionally filtered and sorted.
+     * When there are more cars, the cursor of the next page is returned in the {@value CursorPageDTO#NEXT_CURSOR_HEADER} header.
+     *
+     * @param user The logged-in user, resolved by the security filter.
+     * @param filter The optional filters: {@code yearFrom}, {@code yearTo}, {@code model}, {@code color} and {@code licensePlate} prefix.
+     * @param sort The field to sort by: {@code id}, {@code year}, {@code licensePlate}, {@code model} or {@code color}.
+     * @param direction The direction of the sort, {@code asc} or {@code desc}.
+     * @param after The cursor returned by the previous page, or {@code null} for the first page.
+     * @param size The number of cars per page, limited to {@link CarService#MAX_PAGE_SIZE}.
+     * @return A {@link ResponseEntity} containing a list of car projections.
+     * @throws BusinessException if the sort, the direction or the cursor is invalid.
      */
     @GetMapping
-    public ResponseEntity<List<Car>> findAllByLoggedUser(HttpServletRequest request) {
-        return ResponseEntity.ok(carService.findAllByLoggedUser(request));
+    public ResponseEntity<List<CarView>> findAllByLoggedUser(@AuthenticationPrincipal User user, CarFilterDTO filter,
+                                                             @RequestParam(defaultValue = "id") String sort,
+                                                             @RequestParam(defaultValue = "asc") String direction,
+                                                             @RequestParam(required = false) String after,
+                                                             @RequestParam(defaultValue = "20") int size) throws BusinessException {
+        CursorPageDTO<CarView> page = carService.findAllByLoggedUser(user, filter, sort, direction, after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null)
+            response.header(CursorPageDTO.NEXT_CURSOR_HEADER, page.nextCursor());
+        return response.body(page.content());
     }
 
     /**
      * Retrieves a car by its ID, ensuring it belongs to the currently logged-in user.
      *
      * @param id The ID of the car to be retrieved.
-     * @param request The HTTP request containing authentication information.
-     * @return A {@link ResponseEntity} containing the found car.
+     * @param user The logged-in user, resolved by the security filter.
+     * @return A {@link ResponseEntity} containing the projection of the found car.
      * @throws BusinessException if the car is not found or does not belong to the logged-in user.
      */
     @GetMapping("{id}")
-    public ResponseEntity<Car> findById(@PathVariable String id, HttpServletRequest request) throws BusinessException {
-        return ResponseEntity.ok(carService.findByIdAndLoggedUser(id, request));
+    public ResponseEntity<CarView> findById(@PathVariable String id, @AuthenticationPrincipal User user) throws BusinessException {
+        return ResponseEntity.ok(carService.findViewByIdAndLoggedUser(id, user));
     }
 
     /**
@@ -64,26 +96,26 @@ public class CarController {
      *
      * @param id The ID of the car to be updated.
      * @param car The car with updated information.
-     * @param request The HTTP request containing authentication information.
+     * @param user The logged-in user, resolved by the security filter.
      * @return A {@link ResponseEntity} containing the updated car.
      * @throws BusinessException if validation of the car fails or the car is not found.
      */
     @PutMapping("{id}")
-    public ResponseEntity<Car> update(@PathVariable String id, @RequestBody Car car, HttpServletRequest request) throws BusinessException {
-        return ResponseEntity.ok(carService.update(id, car, request));
+    public ResponseEntity<Car> update(@PathVariable String id, @RequestBody Car car, @AuthenticationPrincipal User user) throws BusinessException {
+        return ResponseEntity.ok(carService.update(id, car, user));
     }
 
     /**
      * Deletes a car by its ID.
      *
      * @param id The ID of the car to be deleted.
-     * @param request The HTTP request containing authentication information.
+     * @param user The logged-in user, resolved by the security filter.
      * @return A {@link ResponseEntity} with HTTP status {@code NO_CONTENT} indicating successful deletion.
      * @throws BusinessException if the car is not found or does not belong to the logged-in user.
      */
     @DeleteMapping("{id}")
-    public ResponseEntity<Void> delete(@PathVariable String id, HttpServletRequest request) throws BusinessException {
-        carService.delete(id, request);
+    public ResponseEntity<Void> delete(@PathVariable String id, @AuthenticationPrincipal User user) throws BusinessException {
+        carService.delete(id, user);
         return ResponseEntity.noContent().build();
     }
 }
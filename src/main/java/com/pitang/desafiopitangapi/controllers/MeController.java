@@ -1,10 +1,11 @@
 package com.pitang.desafiopitangapi.controllers;
 
 import com.pitang.desafiopitangapi.dto.UserDTO;
+import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.service.UserService;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -23,12 +24,12 @@ public class MeController {
     /**
      * Retrieves the details of the currently logged-in user.
      *
-     * @param request The HTTP request containing authentication information.
+     * @param user The logged-in user, resolved by the security filter.
      * @return A {@link ResponseEntity} containing the logged-in user's details in a {@link UserDTO} object.
      */
     @GetMapping
-    ResponseEntity<UserDTO> findByMe(HttpServletRequest request) {
-        return ResponseEntity.ok(userService.findByMe(request));
+    ResponseEntity<UserDTO> findByMe(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(userService.findByMe(user));
     }
 
 }
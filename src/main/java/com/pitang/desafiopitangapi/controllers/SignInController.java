@@ -1,6 +1,9 @@
 package com.pitang.desafiopitangapi.controllers;
 
+import com.pitang.desafiopitangapi.exceptions.BusinessException;
 import com.pitang.desafiopitangapi.infra.RestErrorMessage;
+import com.pitang.desafiopitangapi.infra.ratelimit.SignInRateLimitFilter;
+import com.pitang.desafiopitangapi.infra.ratelimit.SignInRateLimiter;
 import com.pitang.desafiopitangapi.service.UserService;
 import lombok.RequiredArgsConstructor;
 import com.pitang.desafiopitangapi.dto.LoginRequestDTO;
@@ -29,19 +32,28 @@ public class SignInController {
     private final PasswordEncoder passwordEncoder;
     private final TokenService tokenService;
     private final UserService userService;
+    private final SignInRateLimiter signInRateLimiter;
 
     /**
      * Authenticates the user based on the provided login credentials.
-     * If valid, generates a JWT token and updates the user's last login timestamp.
+     * If valid, generates a JWT token, updates the user's last login timestamp and rehashes an outdated password hash.
+     *
+     * Attempts are throttled per client IP by the {@link SignInRateLimitFilter}
+     * and per login before the user is looked up; a successful attempt is not counted towards the limit of the login.
      *
      * @param body The login request containing the user's login and password.
      * @return A {@link ResponseEntity} containing the user details and JWT token.
      * @throws BadCredentialsException if the login or password is incorrect.
+     * @throws BusinessException with a 429 status if there are too many failed attempts for the login,
+     *                           or with a 503 status if the password hashing pool is saturated.
      */
     @PostMapping()
     public ResponseEntity signIn(@RequestBody LoginRequestDTO body) {
+        signInRateLimiter.acquireLogin(body.login());
         User user = userRepository.findByLogin(body.login()).orElseThrow(() -> new BadCredentialsException("Invalid login or password"));
         if (passwordEncoder.matches(body.password(), user.getPassword())){
+            signInRateLimiter.releaseLogin(body.login());
+            userService.upgradePasswordEncoding(user, body.password());
             String token = tokenService.generateToken(user);
             userService.updateLastLogin(user);
             return ResponseEntity.ok(new ResponseDTO(user, token));
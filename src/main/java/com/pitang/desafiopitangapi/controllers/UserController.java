@@ -1,14 +1,22 @@
 package com.pitang.desafiopitangapi.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
 import com.pitang.desafiopitangapi.dto.UserDTO;
 import com.pitang.desafiopitangapi.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 import com.pitang.desafiopitangapi.exceptions.BusinessException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -20,7 +28,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    /**
+     * Maximum time, in milliseconds, to stream all users.
+     */
+    public static final long STREAM_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Registers a new user in the system.
@@ -35,13 +49,47 @@ public class UserController {
     }
 
     /**
-     * Retrieves a list of all users.
+     * Retrieves a page of users ordered by ID.
+     * When there are more users, the cursor of the next page is returned in the {@value CursorPageDTO#NEXT_CURSOR_HEADER} header.
      *
+     * @param after The cursor returned by the previous page, or {@code null} for the first page.
+     * @param size The number of users per page, limited to {@link UserService#MAX_PAGE_SIZE}.
      * @return A {@link ResponseEntity} containing a list of {@link UserDTO} objects.
      */
     @GetMapping
-    public ResponseEntity<List<UserDTO>> findAll() {
-        return ResponseEntity.ok(userService.findAll());
+    public ResponseEntity<List<UserDTO>> findAll(@RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        CursorPageDTO<UserDTO> page = userService.findAll(after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null)
+            response.header(CursorPageDTO.NEXT_CURSOR_HEADER, page.nextCursor());
+        return response.body(page.content());
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON, one user per line, as they are read from the database.
+     * Selected with the {@code stream} request parameter, so clients accepting any media type keep receiving the paginated listing.
+     * The stream times out after {@link #STREAM_TIMEOUT_MILLIS}, instead of the default timeout of the other asynchronous requests.
+     *
+     * @param response The response the {@link UserDTO} objects are written to.
+     * @return A {@link WebAsyncTask} that writes the streamed {@link UserDTO} objects.
+     */
+    @GetMapping(params = "stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamAll(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(STREAM_TIMEOUT_MILLIS, () -> {
+            OutputStream outputStream = response.getOutputStream();
+            userService.streamAll(user -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(user));
+                    outputStream.write('\n');
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+            outputStream.flush();
+            return null;
+        });
     }
 
     /**
@@ -0,0 +1,14 @@
+package com.pitang.desafiopitangapi.dto;
+
+/**
+ * DTO (Data Transfer Object) holding the optional filters for listing the cars of the logged-in user.
+ * A {@code null} filter is not applied.
+ *
+ * @param yearFrom The minimum year of the cars, inclusive.
+ * @param yearTo The maximum year of the cars, inclusive.
+ * @param model The exact model of the cars.
+ * @param color The exact color of the cars.
+ * @param licensePlate The prefix of the license plate of the cars.
+ */
+public record CarFilterDTO(Integer yearFrom, Integer yearTo, String model, String color, String licensePlate) {
+}
@@ -0,0 +1,9 @@
+package com.pitang.desafiopitangapi.dto;
+
+/**
+ * Projection of the {@link com.pitang.desafiopitangapi.model.Car} columns returned by the read endpoints.
+ * Queried directly by the repository, so no entity is loaded into the persistence context.
+ * Serialized with the same fields as a {@link com.pitang.desafiopitangapi.model.Car}.
+ */
+public record CarView(String id, Integer year, String licensePlate, String model, String color, Long version) {
+}
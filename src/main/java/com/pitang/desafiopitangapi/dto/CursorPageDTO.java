@@ -0,0 +1,16 @@
+package com.pitang.desafiopitangapi.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) for a page of a keyset (cursor) paginated listing.
+ * Contains the items of the page and the cursor to request the next page,
+ * which is {@code null} when there are no more items.
+ */
+public record CursorPageDTO<T>(List<T> content, String nextCursor) {
+
+    /**
+     * Response header carrying the cursor of the next page of a paginated listing.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+}
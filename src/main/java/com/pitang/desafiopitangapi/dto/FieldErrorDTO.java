@@ -0,0 +1,10 @@
+package com.pitang.desafiopitangapi.dto;
+
+/**
+ * DTO (Data Transfer Object) describing a validation failure of a single field of a request.
+ *
+ * @param field The path of the field in the request body, such as {@code email} or {@code cars[1].licensePlate}.
+ * @param message The reason the field was rejected.
+ */
+public record FieldErrorDTO(String field, String message) {
+}
@@ -39,6 +39,36 @@ public class UserDTO {
     private LocalDate lastLogin;
     private PasswordEncoder passwordEncoder;
 
+    /**
+     * Builds the UserDTO returned by the read endpoints, with the public fields of a user and without its password and cars.
+     * Shared by the conversions from the {@link User} entity and from the {@link UserSummary} projection.
+     *
+     * @param id the ID of the user
+     * @param firstName the first name of the user
+     * @param lastName the last name of the user
+     * @param email the email of the user
+     * @param birthday the birthday of the user
+     * @param login the login of the user
+     * @param phone the phone of the user
+     * @param createdAt the creation date of the user
+     * @param lastLogin the date of the last login of the user
+     * @return a UserDTO populated with the given values
+     */
+    public static UserDTO of(String id, String firstName, String lastName, String email, Date birthday,
+                             String login, String phone, LocalDate createdAt, LocalDate lastLogin) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(id);
+        userDTO.setFirstName(firstName);
+        userDTO.setLastName(lastName);
+        userDTO.setEmail(email);
+        userDTO.setBirthday(birthday);
+        userDTO.setLogin(login);
+        userDTO.setPhone(phone);
+        userDTO.setCreatedAt(createdAt);
+        userDTO.setLastLogin(lastLogin);
+        return userDTO;
+    }
+
     /**
      * Converts the UserDTO to a User entity.
      *
@@ -0,0 +1,23 @@
+package com.pitang.desafiopitangapi.dto;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Projection of the {@link com.pitang.desafiopitangapi.model.User} columns returned by the read endpoints.
+ * Queried directly by the repository, so no entity is loaded into the persistence context.
+ */
+public record UserSummary(String id, String firstName, String lastName, String email, Date birthday,
+                          String login, String phone, LocalDate createdAt, LocalDate lastLogin) {
+
+    /**
+     * Converts a {@link UserSummary} to a {@link UserDTO}.
+     *
+     * @param summary The user projection to be converted.
+     * @return A {@link UserDTO} containing the user's data.
+     */
+    public static UserDTO toDTO(UserSummary summary) {
+        return UserDTO.of(summary.id(), summary.firstName(), summary.lastName(), summary.email(), summary.birthday(),
+                summary.login(), summary.phone(), summary.createdAt(), summary.lastLogin());
+    }
+}
@@ -0,0 +1,35 @@
+package com.pitang.desafiopitangapi.exceptions;
+
+import com.pitang.desafiopitangapi.dto.FieldErrorDTO;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * Business exception thrown when one or more fields of a request fail validation.
+ * It carries every field error found, so the client can fix all of them at once.
+ * The message is "Missing fields" if any required field is missing, and "Invalid fields" otherwise.
+ */
+public class ValidationException extends BusinessException {
+    private final List<FieldErrorDTO> errors;
+
+    /**
+     * Constructs a new ValidationException with a BAD REQUEST status.
+     *
+     * @param message the detail message explaining the exception
+     * @param errors the field errors found, not empty
+     */
+    public ValidationException(String message, List<FieldErrorDTO> errors) {
+        super(message, HttpStatus.BAD_REQUEST);
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * Gets the field errors found by the validation.
+     *
+     * @return the field errors
+     */
+    public List<FieldErrorDTO> getErrors() {
+        return errors;
+    }
+}
@@ -1,13 +1,18 @@
 package com.pitang.desafiopitangapi.infra;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pitang.desafiopitangapi.dto.FieldErrorDTO;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.http.HttpStatus;
 
+import java.util.List;
+
 /**
  * Represents a structured error message returned in REST API responses.
- * Contains a message describing the error and an HTTP status code.
+ * Contains a message describing the error, an HTTP status code and,
+ * for validation errors, the list of fields that were rejected.
  */
 @Getter @Setter @AllArgsConstructor
 public class RestErrorMessage {
@@ -21,4 +26,20 @@ public class RestErrorMessage {
      * The HTTP status associated with the error.
      */
     private HttpStatus status;
+
+    /**
+     * The fields rejected by the validation, omitted from the response for other errors.
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<FieldErrorDTO> errors;
+
+    /**
+     * Creates an error message without field errors.
+     *
+     * @param message A descriptive message about the error.
+     * @param status The HTTP status associated with the error.
+     */
+    public RestErrorMessage(String message, HttpStatus status) {
+        this(message, status, null);
+    }
 }
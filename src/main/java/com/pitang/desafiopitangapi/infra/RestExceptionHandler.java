@@ -1,6 +1,7 @@
 package com.pitang.desafiopitangapi.infra;
 
 import com.pitang.desafiopitangapi.exceptions.InvalidTokenException;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
 import jakarta.persistence.EntityNotFoundException;
 import com.pitang.desafiopitangapi.exceptions.BusinessException;
 import org.springframework.http.HttpStatus;
@@ -41,6 +42,18 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(exception.getStatus()).body(threatResponse);
     }
 
+    /**
+     * Handles validation exceptions, listing every rejected field in the response.
+     *
+     * @param exception the ValidationException thrown when fields of the request are missing or invalid
+     * @return a ResponseEntity containing a REST error message with the field errors and a 400 BAD REQUEST status
+     */
+    @ExceptionHandler(ValidationException.class)
+    private ResponseEntity<RestErrorMessage> validationExceptionHandler(ValidationException exception) {
+        RestErrorMessage threatResponse = new RestErrorMessage(exception.getMessage(), exception.getStatus(), exception.getErrors());
+        return ResponseEntity.status(exception.getStatus()).body(threatResponse);
+    }
+
     /**
      * Handles generic runtime exceptions with an unauthorized status.
      *
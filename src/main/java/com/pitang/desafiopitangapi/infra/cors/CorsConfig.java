@@ -1,5 +1,7 @@
 package com.pitang.desafiopitangapi.infra.cors;
 
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
+import com.pitang.desafiopitangapi.infra.persistence.QueryStatsFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,6 +34,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins(frontUrl)
                 .allowedMethods("GET", "POST", "PUT", "DELETE")
                 .allowedHeaders("Authorization", "Content-Type", "Accept")
+                .exposedHeaders(CursorPageDTO.NEXT_CURSOR_HEADER, QueryStatsFilter.STATEMENTS_HEADER, QueryStatsFilter.JDBC_TIME_HEADER)
                 .allowCredentials(true);
     }
 
@@ -48,6 +51,9 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.addAllowedOrigin(frontUrl);
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        configuration.addExposedHeader(CursorPageDTO.NEXT_CURSOR_HEADER);
+        configuration.addExposedHeader(QueryStatsFilter.STATEMENTS_HEADER);
+        configuration.addExposedHeader(QueryStatsFilter.JDBC_TIME_HEADER);
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
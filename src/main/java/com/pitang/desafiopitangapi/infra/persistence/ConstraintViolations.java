@@ -0,0 +1,53 @@
+package com.pitang.desafiopitangapi.infra.persistence;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Identifies the database constraint behind a {@link DataIntegrityViolationException}
+ * from the constraint name extracted by Hibernate, instead of from the text of the driver's message.
+ */
+public final class ConstraintViolations {
+
+    /**
+     * Suffix H2 appends to the name of the index backing a unique constraint, followed by a number.
+     */
+    private static final String H2_INDEX_SUFFIX = "_INDEX_";
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Checks if the exception was caused by a violation of the given constraint.
+     * The reported name may be qualified by the schema, and H2 reports the index backing the constraint,
+     * named after it with an {@code _INDEX_<n>} suffix; both forms match.
+     *
+     * @param exception the exception thrown when writing to the database
+     * @param constraintName the name of the constraint, as declared on the entity
+     * @return {@code true} if the violated constraint is the given one
+     */
+    public static boolean isViolationOf(DataIntegrityViolationException exception, String constraintName) {
+        String violated = violatedConstraint(exception);
+        if (violated == null)
+            return false;
+        violated = violated.substring(violated.lastIndexOf('.') + 1);
+        if (violated.equalsIgnoreCase(constraintName))
+            return true;
+        String indexPrefix = constraintName + H2_INDEX_SUFFIX;
+        return violated.regionMatches(true, 0, indexPrefix, 0, indexPrefix.length());
+    }
+
+    /**
+     * Finds the name of the violated constraint in the causes of the exception.
+     *
+     * @param exception the exception thrown when writing to the database
+     * @return the constraint name reported by Hibernate, or {@code null} if there is none
+     */
+    private static String violatedConstraint(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation)
+                return violation.getConstraintName();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pitang.desafiopitangapi.infra.persistence;
+
+/**
+ * Number of SQL statements and JDBC time of the request being handled by the current thread.
+ * Statistics are only collected between {@link #start()} and {@link #stop()}, which the {@link QueryStatsFilter}
+ * calls around each request; statements run on other threads, such as background tasks, are not counted.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long jdbcNanos;
+
+    private QueryStats() {
+    }
+
+    /**
+     * Starts collecting statistics on the current thread.
+     *
+     * @return the statistics of the current thread
+     */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Gets the statistics being collected on the current thread.
+     *
+     * @return the statistics, or {@code null} if they are not being collected
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops collecting statistics on the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    /**
+     * Gets the number of SQL statements prepared.
+     *
+     * @return the number of statements
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Gets the time spent executing statements on the JDBC driver.
+     *
+     * @return the JDBC time, in milliseconds
+     */
+    public long getJdbcMillis() {
+        return jdbcNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,88 @@
+package com.pitang.desafiopitangapi.infra.persistence;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Opt-in filter reporting the SQL statements issued by each request, enabled by {@code api.query-stats.enabled}.
+ * The number of statements and the JDBC time are sent in the {@value #STATEMENTS_HEADER} and
+ * {@value #JDBC_TIME_HEADER} response headers, and requests above the configured thresholds are logged.
+ * It runs before the security filters, so the statements of the authentication are counted too.
+ * The body is buffered to add the headers after the handler, so the streaming listing of users is not filtered.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "api.query-stats.enabled", havingValue = "true")
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Query-Count";
+    public static final String JDBC_TIME_HEADER = "X-Query-Time-Ms";
+
+    /**
+     * The streaming listing of users, selected by the {@code stream} parameter of {@code GET /users}.
+     */
+    private static final RequestMatcher USERS_STREAM = new AndRequestMatcher(
+            antMatcher(HttpMethod.GET, "/users"),
+            request -> request.getParameter("stream") != null);
+
+    @Value("${api.query-stats.slow.statements}")
+    private int slowStatements;
+
+    @Value("${api.query-stats.slow.jdbc-millis}")
+    private long slowJdbcMillis;
+
+    /**
+     * Collects the statistics of the request and reports them in the response headers and, for slow requests, in the log.
+     *
+     * @param request     the HTTP request
+     * @param response    the HTTP response
+     * @param filterChain the filter chain to continue processing the request
+     * @throws ServletException if an exception occurs during filtering
+     * @throws IOException      if an I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        QueryStats stats = QueryStats.start();
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            QueryStats.stop();
+            wrapper.setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            wrapper.setHeader(JDBC_TIME_HEADER, String.valueOf(stats.getJdbcMillis()));
+            if (stats.getStatements() > slowStatements || stats.getJdbcMillis() > slowJdbcMillis)
+                log.warn("{} {} issued {} SQL statements in {} ms", request.getMethod(), request.getRequestURI(),
+                        stats.getStatements(), stats.getJdbcMillis());
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Skips the streaming listing of users, whose body must not be buffered.
+     *
+     * @param request the HTTP request
+     * @return {@code true} if the request streams its response
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return USERS_STREAM.matches(request);
+    }
+}
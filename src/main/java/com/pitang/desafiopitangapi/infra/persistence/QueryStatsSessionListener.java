@@ -0,0 +1,45 @@
+package com.pitang.desafiopitangapi.infra.persistence;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener adding the statements and JDBC time of each session to the {@link QueryStats}
+ * of the current thread. Hibernate creates one listener per session, as configured by
+ * {@code hibernate.session.events.auto}; when no statistics are being collected, it does nothing.
+ */
+public class QueryStatsSessionListener implements SessionEventListener {
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null)
+            stats.statementPrepared();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null)
+            stats.jdbcTime(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null)
+            stats.jdbcTime(System.nanoTime() - batchStart);
+    }
+}
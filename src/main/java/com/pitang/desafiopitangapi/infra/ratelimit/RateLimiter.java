@@ -0,0 +1,110 @@
+package com.pitang.desafiopitangapi.infra.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process token bucket rate limiter, with one bucket per key (such as a client IP or a login).
+ * Each bucket holds up to {@code capacity} tokens and is refilled continuously at {@code refillPerMinute};
+ * an attempt takes one token and is rejected when the bucket is empty, and an attempt that is not to be counted
+ * can give its token back.
+ * Buckets are kept in a bounded concurrent cache and evicted once idle long enough to be full again,
+ * so evicting a bucket never resets a limit. Buckets are updated with compare-and-set, without locks.
+ */
+public class RateLimiter {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private final Cache<String, AtomicReference<Bucket>> buckets;
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param capacity the maximum number of attempts allowed in a burst
+     * @param refillPerMinute the number of attempts allowed per minute once the burst is spent
+     * @param maxKeys the maximum number of keys tracked at the same time
+     */
+    public RateLimiter(long capacity, long refillPerMinute, long maxKeys) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / (double) Duration.ofMinutes(1).toNanos();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity / tokensPerNano)))
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the key.
+     *
+     * @param key the key being limited
+     * @return {@code true} if the attempt is allowed, {@code false} if the bucket is empty
+     */
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    /**
+     * Takes a token from the bucket of the key at the given time.
+     *
+     * @param key the key being limited
+     * @param now the current time, from {@link System#nanoTime()}
+     * @return {@code true} if the attempt is allowed, {@code false} if the bucket is empty
+     */
+    boolean tryAcquire(String key, long now) {
+        AtomicReference<Bucket> bucket = buckets.get(key, k -> new AtomicReference<>(new Bucket(capacity, now)));
+        while (true) {
+            Bucket current = bucket.get();
+            double tokens = Math.min(capacity, current.tokens() + (now - current.updatedAt()) * tokensPerNano);
+            if (tokens < 1)
+                return false;
+            if (bucket.compareAndSet(current, new Bucket(tokens - 1, now)))
+                return true;
+        }
+    }
+
+    /**
+     * Gives back the token taken by an attempt that is not to be counted, without exceeding the capacity of the bucket.
+     *
+     * @param key the key being limited
+     */
+    public void release(String key) {
+        release(key, System.nanoTime());
+    }
+
+    /**
+     * Gives back the token taken by an attempt at the given time, without exceeding the capacity of the bucket.
+     * Nothing is done if the bucket was already evicted, since an evicted bucket is full.
+     *
+     * @param key the key being limited
+     * @param now the current time, from {@link System#nanoTime()}
+     */
+    void release(String key, long now) {
+        AtomicReference<Bucket> bucket = buckets.getIfPresent(key);
+        if (bucket == null)
+            return;
+        while (true) {
+            Bucket current = bucket.get();
+            double tokens = Math.min(capacity, current.tokens() + (now - current.updatedAt()) * tokensPerNano + 1);
+            if (bucket.compareAndSet(current, new Bucket(tokens, now)))
+                return;
+        }
+    }
+
+    /**
+     * Gets the number of keys currently tracked.
+     *
+     * @return the estimated number of buckets
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * The tokens left in a bucket and the time they were computed, from {@link System#nanoTime()}.
+     */
+    private record Bucket(double tokens, long updatedAt) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.pitang.desafiopitangapi.infra.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.desafiopitangapi.infra.RestErrorMessage;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Filter throttling the sign-in attempts of each client IP with the {@link SignInRateLimiter}.
+ * It runs before the security filters and the controller, so a rejected attempt costs neither the parsing
+ * of its body nor a query or a password hash. The client IP is {@link HttpServletRequest#getRemoteAddr()}:
+ * behind a reverse proxy it is the address of the proxy, and every client shares one limit, unless
+ * {@code server.forward-headers-strategy} is set so the address is read from the forwarded headers.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 2)
+public class SignInRateLimitFilter extends OncePerRequestFilter {
+
+    private static final RequestMatcher SIGN_IN = antMatcher(HttpMethod.POST, "/signin");
+
+    @Autowired
+    SignInRateLimiter signInRateLimiter;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    /**
+     * Takes the attempt from the limit of the client IP, responding with an HTTP 429 Too Many Requests status
+     * once the limit is exceeded.
+     *
+     * @param request     the HTTP request
+     * @param response    the HTTP response
+     * @param filterChain the filter chain to continue processing the request
+     * @throws ServletException if an exception occurs during filtering
+     * @throws IOException      if an I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!signInRateLimiter.tryAcquireIp(request.getRemoteAddr())) {
+            byte[] body = objectMapper.writeValueAsBytes(
+                    new RestErrorMessage(SignInRateLimiter.TOO_MANY_ATTEMPTS, HttpStatus.TOO_MANY_REQUESTS));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Skips every request other than a sign-in.
+     *
+     * @param request the HTTP request
+     * @return {@code true} if the request is not a sign-in
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !SIGN_IN.matches(request);
+    }
+}
@@ -0,0 +1,79 @@
+package com.pitang.desafiopitangapi.infra.ratelimit;
+
+import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles sign-in attempts per client IP and per login, before the user is looked up and the password hashed.
+ * The IP limit stops a single client from trying many logins and is taken by the {@link SignInRateLimitFilter}
+ * for every attempt. The login limit stops a distributed attack on a single account and only counts failed
+ * attempts: the token taken before the password is checked is given back when the sign-in succeeds.
+ * Rejected attempts are counted by the {@code signin.rate_limit.rejected} metric, tagged by the limit that rejected them.
+ */
+@Component
+public class SignInRateLimiter {
+
+    public static final String TOO_MANY_ATTEMPTS = "Too many sign-in attempts, try again later";
+
+    private final RateLimiter ipLimiter;
+    private final RateLimiter loginLimiter;
+    private final Counter ipRejections;
+    private final Counter loginRejections;
+
+    public SignInRateLimiter(@Value("${api.security.signin.rate-limit.ip.capacity}") long ipCapacity,
+                             @Value("${api.security.signin.rate-limit.ip.refill-per-minute}") long ipRefillPerMinute,
+                             @Value("${api.security.signin.rate-limit.login.capacity}") long loginCapacity,
+                             @Value("${api.security.signin.rate-limit.login.refill-per-minute}") long loginRefillPerMinute,
+                             @Value("${api.security.signin.rate-limit.max-keys}") long maxKeys,
+                             MeterRegistry meterRegistry) {
+        this.ipLimiter = new RateLimiter(ipCapacity, ipRefillPerMinute, maxKeys);
+        this.loginLimiter = new RateLimiter(loginCapacity, loginRefillPerMinute, maxKeys);
+        this.ipRejections = Counter.builder("signin.rate_limit.rejected").tag("limit", "ip")
+                .description("Sign-in attempts rejected by the rate limiter").register(meterRegistry);
+        this.loginRejections = Counter.builder("signin.rate_limit.rejected").tag("limit", "login")
+                .description("Sign-in attempts rejected by the rate limiter").register(meterRegistry);
+        Gauge.builder("signin.rate_limit.keys", ipLimiter, RateLimiter::size).tag("limit", "ip").register(meterRegistry);
+        Gauge.builder("signin.rate_limit.keys", loginLimiter, RateLimiter::size).tag("limit", "login").register(meterRegistry);
+    }
+
+    /**
+     * Takes a sign-in attempt from the limit of the client IP.
+     *
+     * @param ip The address of the client.
+     * @return {@code true} if the attempt is allowed, {@code false} if the limit is exceeded.
+     */
+    public boolean tryAcquireIp(String ip) {
+        if (ipLimiter.tryAcquire(ip))
+            return true;
+        ipRejections.increment();
+        return false;
+    }
+
+    /**
+     * Takes a sign-in attempt from the limit of the login, to be given back by {@link #releaseLogin(String)} if it succeeds.
+     *
+     * @param login The login being signed in, or {@code null} if missing.
+     * @throws BusinessException with a 429 TOO MANY REQUESTS status if the limit is exceeded.
+     */
+    public void acquireLogin(String login) {
+        if (login != null && !loginLimiter.tryAcquire(login)) {
+            loginRejections.increment();
+            throw new BusinessException(TOO_MANY_ATTEMPTS, HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    /**
+     * Gives back the attempt taken by {@link #acquireLogin(String)} once the sign-in succeeded,
+     * so only failed attempts count towards the limit of the login.
+     *
+     * @param login The login that was signed in.
+     */
+    public void releaseLogin(String login) {
+        loginLimiter.release(login);
+    }
+}
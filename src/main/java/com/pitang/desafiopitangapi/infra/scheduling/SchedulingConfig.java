@@ -0,0 +1,13 @@
+package com.pitang.desafiopitangapi.infra.scheduling;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class that enables Spring's scheduled tasks, such as the periodic flush of the
+ * buffered last login dates.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
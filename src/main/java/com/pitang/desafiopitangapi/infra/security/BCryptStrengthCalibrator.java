@@ -0,0 +1,53 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Chooses the BCrypt strength (log2 of the number of rounds) for the host the application runs on.
+ * Each additional unit of strength doubles the hashing time, so the strength is raised while the measured
+ * hashing time of the next strength would still fit in the target latency.
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Measures the hashing time on this host and returns the highest strength whose hashing time
+     * does not exceed the target, within the given bounds.
+     *
+     * @param targetMillis the target hashing time of a password, in milliseconds
+     * @param minStrength the lowest strength allowed, used even if it is slower than the target
+     * @param maxStrength the highest strength allowed
+     * @return the calibrated strength
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        new BCryptPasswordEncoder(minStrength).encode(SAMPLE_PASSWORD);
+
+        int strength = minStrength;
+        long elapsedMillis = measure(strength);
+        while (strength < maxStrength && elapsedMillis * 2 <= targetMillis) {
+            strength++;
+            elapsedMillis = measure(strength);
+        }
+        log.info("BCrypt strength calibrated to {} ({} ms per hash, target {} ms)", strength, elapsedMillis, targetMillis);
+        return strength;
+    }
+
+    /**
+     * Measures the time of hashing a password with the given strength.
+     *
+     * @param strength the BCrypt strength
+     * @return the hashing time, in milliseconds
+     */
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
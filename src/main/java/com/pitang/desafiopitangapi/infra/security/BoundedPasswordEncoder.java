@@ -0,0 +1,176 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+/**
+ * Password encoder that runs the hashing of a delegate encoder on a bounded, dedicated thread pool.
+ * Hashing with BCrypt is deliberately slow, so a burst of sign-ins or registrations would otherwise
+ * take every request thread and CPU and slow down all the other endpoints.
+ * At most {@code poolSize} hashes run at the same time and at most {@code queueCapacity} wait for a thread;
+ * beyond that the call fails immediately with a {@link BusinessException} with a 503 SERVICE UNAVAILABLE status.
+ * The hashing time is recorded by the {@code password.hashing} timer, tagged by operation, the time waiting
+ * for a thread by {@code password.hashing.wait}, and the rejected calls by {@code password.hashing.rejected}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejections;
+
+    /**
+     * Creates an encoder running the given delegate on its own pool.
+     *
+     * @param delegate the encoder doing the hashing
+     * @param poolSize the number of threads hashing passwords
+     * @param queueCapacity the number of hashes allowed to wait for a thread, {@code 0} for none
+     * @param meterRegistry the registry of the hashing metrics
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(poolSize + queueCapacity);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = hashingTimer("encode", meterRegistry);
+        this.matchesTimer = hashingTimer("matches", meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time a password hash waits for a hashing thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejections = Counter.builder("password.hashing.rejected")
+                .description("Password hashes rejected because the hashing pool is saturated")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes the raw password on the hashing pool.
+     *
+     * @param rawPassword the password to hash
+     * @return the hashed password
+     * @throws BusinessException with a 503 SERVICE UNAVAILABLE status if the hashing pool is saturated
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Checks the raw password against the hashed one on the hashing pool.
+     *
+     * @param rawPassword the password to check
+     * @param encodedPassword the hashed password
+     * @return {@code true} if the passwords match
+     * @throws BusinessException with a 503 SERVICE UNAVAILABLE status if the hashing pool is saturated
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Checks if the hashed password should be hashed again. This does not hash, so it runs on the caller thread.
+     *
+     * @param encodedPassword the hashed password
+     * @return {@code true} if the password should be hashed again
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stops the hashing pool when the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the task on the hashing pool and waits for its result.
+     * The pool capacity is enforced by a semaphore with a permit per thread and per queue slot, released by the task
+     * itself before its result is published. Bounding the executor queue instead would reject a call made right after
+     * the previous one returned, while its thread is still finishing and not yet taking new work.
+     *
+     * @param timer the timer of the hashing time
+     * @param task the hashing task
+     * @return the result of the task
+     * @throws BusinessException with a 503 SERVICE UNAVAILABLE status if the task is rejected
+     */
+    private <T> T execute(Timer timer, Callable<T> task) {
+        if (!permits.tryAcquire())
+            throw rejected();
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                    return timer.recordCallable(task);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            permits.release();
+            throw rejected();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            if (executor.remove((Runnable) future))
+                permits.release();
+            else
+                future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing the password", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw new IllegalStateException("Password hashing failed", exception.getCause());
+        }
+    }
+
+    /**
+     * Counts a rejected call and builds the exception returned to the caller.
+     *
+     * @return the exception with a 503 SERVICE UNAVAILABLE status
+     */
+    private BusinessException rejected() {
+        rejections.increment();
+        return new BusinessException("Service busy, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Builds the timer of a hashing operation.
+     *
+     * @param operation the name of the operation
+     * @param meterRegistry the registry of the timer
+     * @return the timer
+     */
+    private static Timer hashingTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing")
+                .description("Time spent hashing passwords")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.actuate.endpoint.web.WebServerNamespace;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+/**
+ * Requests received by the management server, the separate port serving the actuator endpoints
+ * ({@code management.server.port}), which is bound to an internal address ({@code management.server.address}).
+ * They are permitted without a token, so the monitoring can scrape the metrics; the port itself must not be
+ * reachable from outside the internal network.
+ * Requests are recognized by the server that received them, not by their path, so when the actuator shares
+ * the API port none of them match and only the {@link PublicRoutes} are open.
+ */
+public final class ManagementRequests {
+
+    /**
+     * Matches the requests received by the management server.
+     */
+    public static final RequestMatcher MATCHER = ManagementRequests::matches;
+
+    private ManagementRequests() {
+    }
+
+    /**
+     * Checks if the request was received by the management server.
+     *
+     * @param request the HTTP request
+     * @return {@code true} if the request was received by the management server
+     */
+    public static boolean matches(HttpServletRequest request) {
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(request.getServletContext());
+        return context != null && WebServerApplicationContext.hasServerNamespace(context, WebServerNamespace.MANAGEMENT.getValue());
+    }
+}
@@ -0,0 +1,44 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Routes that can be called without a token.
+ * The same matcher is used by {@link SecurityConfig} to permit the routes and by {@link SecurityFilter}
+ * to skip the token verification on them, so both always agree on which routes are public.
+ * The patterns are parsed once and matched against the path inside the context path.
+ * The health endpoint is public when the actuator shares the API port; the other actuator endpoints are served
+ * without a token only by the internal management server, see {@link ManagementRequests}.
+ */
+public final class PublicRoutes {
+
+    /**
+     * Matches the requests to the public routes.
+     */
+    public static final RequestMatcher MATCHER = new OrRequestMatcher(
+            antMatcher(HttpMethod.POST, "/signin"),
+            antMatcher(HttpMethod.GET, "/users"),
+            antMatcher(HttpMethod.POST, "/users"),
+            antMatcher(HttpMethod.GET, "/users/{id}"),
+            antMatcher(HttpMethod.DELETE, "/users/{id}"),
+            antMatcher(HttpMethod.PUT, "/users/{id}"),
+            antMatcher(HttpMethod.GET, "/actuator/health"));
+
+    private PublicRoutes() {
+    }
+
+    /**
+     * Checks if the request is for a public route.
+     *
+     * @param request the HTTP request
+     * @return {@code true} if the route can be called without a token
+     */
+    public static boolean matches(HttpServletRequest request) {
+        return MATCHER.matches(request);
+    }
+}
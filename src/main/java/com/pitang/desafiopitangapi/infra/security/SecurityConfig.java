@@ -1,19 +1,23 @@
 package com.pitang.desafiopitangapi.infra.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 /**
  * Security configuration class for the application, setting up authentication,
  * authorization, CORS filter, and session management policies.
@@ -26,6 +30,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final String BCRYPT = "bcrypt";
+
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
@@ -35,7 +41,8 @@ public class SecurityConfig {
     /**
      * Configures security filters and authentication policies for the application.
      * Disables CSRF protection, sets session management to stateless, and defines
-     * authorization rules for various API endpoints.
+     * authorization rules for various API endpoints. The public endpoints are the {@link PublicRoutes},
+     * and the actuator endpoints are open on the internal management server, see {@link ManagementRequests}.
      *
      * @param http the HttpSecurity object used to configure security permissions
      * @return the Spring Security configuration for HTTP requests
@@ -47,12 +54,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers(HttpMethod.POST, "/signin").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/users").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/users").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/users/{id}").permitAll()
-                        .requestMatchers(HttpMethod.DELETE, "/users/{id}").permitAll()
-                        .requestMatchers(HttpMethod.PUT, "/users/{id}").permitAll()
+                        .requestMatchers(PublicRoutes.MATCHER).permitAll()
+                        .requestMatchers(ManagementRequests.MATCHER).permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class);
@@ -61,12 +64,36 @@ public class SecurityConfig {
 
     /**
      * Provides the password encoder used for hashing passwords in the system.
+     * New passwords are hashed with BCrypt and prefixed with {@code {bcrypt}}, so the algorithm can be replaced
+     * later without a migration; hashes without a prefix are read as BCrypt.
+     * The BCrypt strength is the configured one or, when it is {@code 0}, the one calibrated at startup
+     * to the target hashing time on this host. Outdated hashes are upgraded on sign-in.
+     * The hashing runs on a bounded pool of its own, so sign-in and registration bursts
+     * are rejected with 503 instead of starving the other endpoints.
      *
-     * @return the BCryptPasswordEncoder instance for password hashing
+     * @param strength the BCrypt strength, or {@code 0} to calibrate it
+     * @param targetMillis the target hashing time used by the calibration, in milliseconds
+     * @param minStrength the lowest strength the calibration may choose
+     * @param maxStrength the highest strength the calibration may choose
+     * @param poolSize the number of threads hashing passwords
+     * @param queueCapacity the number of hashes allowed to wait for a thread
+     * @param meterRegistry the registry of the hashing metrics
+     * @return the {@link DelegatingPasswordEncoder} for password hashing, wrapped in a {@link BoundedPasswordEncoder}
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${api.security.password.strength}") int strength,
+                                           @Value("${api.security.password.target-millis}") long targetMillis,
+                                           @Value("${api.security.password.min-strength}") int minStrength,
+                                           @Value("${api.security.password.max-strength}") int maxStrength,
+                                           @Value("${api.security.password.pool-size}") int poolSize,
+                                           @Value("${api.security.password.queue-capacity}") int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        if (strength <= 0)
+            strength = BCryptStrengthCalibrator.calibrate(targetMillis, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new BoundedPasswordEncoder(passwordEncoder, poolSize, queueCapacity, meterRegistry);
     }
 
     /**
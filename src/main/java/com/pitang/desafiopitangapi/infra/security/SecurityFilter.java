@@ -1,16 +1,19 @@
 package com.pitang.desafiopitangapi.infra.security;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.pitang.desafiopitangapi.exceptions.InvalidTokenException;
 import com.pitang.desafiopitangapi.infra.RestErrorMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import com.pitang.desafiopitangapi.model.User;
-import com.pitang.desafiopitangapi.repository.UserRepository;
+import com.pitang.desafiopitangapi.service.TokenVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,11 +21,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Security filter for handling JWT token-based authentication. Filters every request to verify tokens
  * and set authentication if the token is valid. If the token is invalid, responds with an error message.
+ * The principal is built from the claims of the token, and the token version is checked against the
+ * in-memory table of the {@link TokenVersionService}, so authenticating a request does not query the database.
  */
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
@@ -30,12 +36,62 @@ public class SecurityFilter extends OncePerRequestFilter {
     @Autowired
     TokenService tokenService;
     @Autowired
-    UserRepository userRepository;
+    TokenVersionService tokenVersionService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    static final String UNAUTHORIZED = "Unauthorized";
+    static final String INVALID_SESSION = "Unauthorized - invalid session";
+
+    /**
+     * Serialized bodies of the error responses, built once since every rejected request sends one of them.
+     */
+    private Map<String, byte[]> errorBodies;
+
+    private Timer verificationTimer;
+    private Timer versionTimer;
+    private Map<String, Counter> rejections;
+
+    /**
+     * Prepares the filter once its dependencies are injected.
+     *
+     * @throws ServletException if the filter cannot be initialized
+     */
+    @Override
+    public void afterPropertiesSet() throws ServletException {
+        super.afterPropertiesSet();
+        init();
+    }
+
+    /**
+     * Serializes the bodies of the error responses with the application {@link ObjectMapper} and registers the metrics:
+     * the {@code security.filter} timer, tagged by the step of the authentication ({@code verification} of the
+     * token signature and claims, {@code version} lookup of the user), and the {@code security.filter.rejected}
+     * counter, tagged by the reason.
+     * Called once by Spring from {@link #afterPropertiesSet()}. It is not a {@code @PostConstruct} method,
+     * because the servlet container also processes that annotation on the filter instances it starts.
+     */
+    void init() {
+        errorBodies = Map.of(
+                UNAUTHORIZED, serialize(UNAUTHORIZED),
+                INVALID_SESSION, serialize(INVALID_SESSION));
+
+        verificationTimer = stepTimer("verification");
+        versionTimer = stepTimer("version");
+        rejections = Map.of(
+                UNAUTHORIZED, rejectionCounter("invalid_token"),
+                INVALID_SESSION, rejectionCounter("revoked_token"));
+    }
 
     /**
      * Filters incoming requests to authenticate users based on JWT tokens.
-     * Checks the token in the "Authorization" header, verifies it, and sets user authentication if valid.
-     * If the token is invalid or missing in unauthorized routes, an error response is sent.
+     * Requests to the {@link PublicRoutes} and to the internal management server are passed on without looking at the token.
+     * For the other routes, checks the token in the "Authorization" header, verifies it, and sets user authentication if valid.
+     * If the token is missing or invalid, or its user was updated or deleted since it was issued, an error response is sent.
      *
      * @param request     the HTTP request
      * @param response    the HTTP response
@@ -45,42 +101,89 @@ public class SecurityFilter extends OncePerRequestFilter {
      */
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        try {
-            var token = tokenService.recoverToken(request);
-            if ((token == null ||token.isEmpty()) && !request.getRequestURI().contains("/signin") && !request.getRequestURI().contains("/users"))
-                throw new InvalidTokenException("Unauthorized");
-
-            var login = tokenService.verifyToken(token);
-
-            if (login != null) {
-                User user = userRepository.findByLogin(login).orElseThrow(() -> new InvalidTokenException("Unauthorized - invalid session"));
-                var authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
-                var authentication = new UsernamePasswordAuthenticationToken(user, null, authorities);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }else if(token != null){
-                throw new InvalidTokenException("Unauthorized");
-            }
+        if (PublicRoutes.matches(request) || ManagementRequests.matches(request)) {
             filterChain.doFilter(request, response);
-        }catch (InvalidTokenException e) {
-            sendErrorResponse(response, e.getMessage());
+            return;
+        }
+
+        String token = tokenService.recoverToken(request);
+        TokenClaims claims = verificationTimer.record(() -> tokenService.verifyToken(token));
+        if (claims == null) {
+            sendErrorResponse(response, UNAUTHORIZED);
+            return;
+        }
+
+        if (!versionTimer.record(() -> tokenVersionService.isCurrent(claims.userId(), claims.version()))) {
+            sendErrorResponse(response, INVALID_SESSION);
+            return;
         }
+
+        var authentication = new UsernamePasswordAuthenticationToken(claims.toPrincipal(), null, AUTHORITIES);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        filterChain.doFilter(request, response);
     }
 
     /**
      * Sends an error response in JSON format with a given message and an HTTP 401 Unauthorized status.
+     * The bodies of the fixed error messages are served already serialized.
      *
      * @param response the HTTP response to be sent
      * @param message  the error message to be included in the response body
      * @throws IOException if an I/O error occurs during response writing
      */
     private void sendErrorResponse(HttpServletResponse response, String message) throws IOException {
-        RestErrorMessage restErrorMessage = new RestErrorMessage(message, HttpStatus.UNAUTHORIZED);
-        String json = new ObjectMapper().writerWithDefaultPrettyPrinter()
-                .writeValueAsString(restErrorMessage);
+        Counter counter = rejections.get(message);
+        if (counter != null)
+            counter.increment();
+        byte[] body = errorBodies.get(message);
+        if (body == null)
+            body = serialize(message);
 
         response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        response.getWriter().write(json);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Builds the timer of a step of the authentication.
+     *
+     * @param step the name of the step
+     * @return the timer
+     */
+    private Timer stepTimer(String step) {
+        return Timer.builder("security.filter")
+                .description("Time spent authenticating requests")
+                .tag("step", step)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the counter of the requests rejected for a reason.
+     *
+     * @param reason the reason of the rejection
+     * @return the counter
+     */
+    private Counter rejectionCounter(String reason) {
+        return Counter.builder("security.filter.rejected")
+                .description("Requests rejected by the security filter")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Serializes an error message with an HTTP 401 Unauthorized status.
+     *
+     * @param message the error message
+     * @return the JSON body, encoded in UTF-8
+     * @throws IllegalStateException if the message cannot be serialized
+     */
+    private byte[] serialize(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(new RestErrorMessage(message, HttpStatus.UNAUTHORIZED));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Error message cannot be serialized", exception);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import com.pitang.desafiopitangapi.model.User;
+
+/**
+ * Claims of a verified JWT token identifying the authenticated user.
+ *
+ * @param userId The ID of the user.
+ * @param login The login of the user, the subject of the token.
+ * @param version The token version of the user when the token was issued.
+ */
+public record TokenClaims(String userId, String login, int version) {
+
+    /**
+     * Builds the principal of an authenticated request from the claims, without loading the user.
+     * The principal only holds the ID, the login and the token version.
+     *
+     * @return A detached user with the ID, login and token version of the token.
+     */
+    public User toPrincipal() {
+        User user = new User();
+        user.setId(userId);
+        user.setLogin(login);
+        user.setTokenVersion(version);
+        return user;
+    }
+}
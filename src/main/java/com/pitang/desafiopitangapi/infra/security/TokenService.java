@@ -1,33 +1,73 @@
 package com.pitang.desafiopitangapi.infra.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.pitang.desafiopitangapi.model.User;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service class responsible for generating, verifying, and extracting JWT tokens.
+ * Tokens carry the user ID and the token version of the user besides the login, so requests can be
+ * authenticated from the token alone.
+ * Verified tokens are cached by their hash until they expire, so repeated requests
+ * with the same token skip the signature verification.
  */
 @Service
 public class TokenService {
 
+    private static final String ISSUER = "desafio-pitang-api";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${api.security.token.secret}")
     private String secretKey;
 
     @Value("${api.security.token.expire.minutes}")
     private Long expireMinutes;
 
+    @Value("${api.security.token.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    /**
+     * Verified tokens indexed by the SHA-256 hash of the token, holding the claims and the expiration.
+     */
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the signing algorithm and the verifier once. Both are immutable and thread-safe.
+     */
+    @PostConstruct
+    void init() {
+        algorithm = Algorithm.HMAC256(secretKey);
+        verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+    }
+
     /**
      * Generates a JWT token for the given user.
-     * The token includes the issuer, subject (user login), and expiration date.
+     * The token includes the issuer, subject (user login), user ID, token version, and expiration date.
      *
      * @param user the user for whom the token is generated.
      * @return a JWT token string.
@@ -35,11 +75,11 @@ public class TokenService {
      */
     public String generateToken(User user){
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secretKey);
-
             String token = JWT.create()
-                    .withIssuer("desafio-pitang-api")
+                    .withIssuer(ISSUER)
                     .withSubject(user.getLogin())
+                    .withClaim(CLAIM_USER_ID, user.getId())
+                    .withClaim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
                     .withExpiresAt(this.generateExpirationDate())
                     .sign(algorithm);
             return token;
@@ -58,19 +98,30 @@ public class TokenService {
     }
 
     /**
-     * Verifies and decodes the given JWT token, extracting the subject (user login).
+     * Verifies and decodes the given JWT token, extracting the user ID, login and token version.
+     * A token already verified is served from the cache until its expiration.
      *
      * @param token the JWT token to be verified.
-     * @return the subject of the token (user login) if valid; null otherwise.
+     * @return the claims of the token if valid; null otherwise, including tokens issued without the user claims.
      */
-    public String verifyToken(String token){
+    public TokenClaims verifyToken(String token){
+        if (token == null || token.isBlank())
+            return null;
+
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(Instant.now()))
+                return cached.claims();
+            verifiedTokens.remove(key, cached);
+        }
+
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secretKey);
-            return JWT.require(algorithm)
-                    .withIssuer("desafio-pitang-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            DecodedJWT decoded = verifier.verify(token);
+            TokenClaims claims = claims(decoded);
+            if (claims != null)
+                cache(key, claims, decoded.getExpiresAtAsInstant());
+            return claims;
         } catch (JWTVerificationException exception) {
             return null;
         }
@@ -85,6 +136,70 @@ public class TokenService {
     public String recoverToken(HttpServletRequest request){
         var authHeader = request.getHeader("Authorization");
         if (authHeader == null) return null;
-        return authHeader.replace("Bearer ", "");
+        return authHeader.startsWith(BEARER_PREFIX) ? authHeader.substring(BEARER_PREFIX.length()) : authHeader;
+    }
+
+    /**
+     * Returns the number of verified tokens currently cached.
+     *
+     * @return the number of cached tokens.
+     */
+    int cachedTokens() {
+        return verifiedTokens.size();
+    }
+
+    /**
+     * Extracts the user claims of a verified token.
+     *
+     * @param decoded the verified token.
+     * @return the claims of the token, or null if the subject, user ID or token version is missing.
+     */
+    private static TokenClaims claims(DecodedJWT decoded) {
+        String userId = decoded.getClaim(CLAIM_USER_ID).asString();
+        Integer version = decoded.getClaim(CLAIM_TOKEN_VERSION).asInt();
+        if (decoded.getSubject() == null || userId == null || version == null)
+            return null;
+        return new TokenClaims(userId, decoded.getSubject(), version);
+    }
+
+    /**
+     * Stores a verified token in the cache. When the cache is full, expired entries are purged first;
+     * if it is still full the token is simply not cached.
+     *
+     * @param key the hash of the token.
+     * @param claims the claims of the verified token.
+     * @param expiresAt the expiration of the token.
+     */
+    private void cache(String key, TokenClaims claims, Instant expiresAt) {
+        if (expiresAt == null)
+            return;
+        if (verifiedTokens.size() >= cacheMaxSize) {
+            Instant now = Instant.now();
+            verifiedTokens.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+            if (verifiedTokens.size() >= cacheMaxSize)
+                return;
+        }
+        verifiedTokens.put(key, new VerifiedToken(claims, expiresAt));
+    }
+
+    /**
+     * Hashes the token with SHA-256 so the raw token is never kept in memory as a cache key.
+     *
+     * @param token the JWT token.
+     * @return the Base64 encoded hash of the token.
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 not available", exception);
+        }
+    }
+
+    /**
+     * Claims and expiration of a token whose signature has already been verified.
+     */
+    private record VerifiedToken(TokenClaims claims, Instant expiresAt) {
     }
 }
@@ -0,0 +1,98 @@
+package com.pitang.desafiopitangapi.infra.validation;
+
+import com.pitang.desafiopitangapi.dto.FieldErrorDTO;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the field errors of a request while it is validated, so every field is checked in a single pass
+ * and all the errors are reported together by {@link #throwIfAny()}.
+ * Not thread-safe: an instance belongs to a single validation.
+ */
+public final class ValidationErrors {
+
+    public static final String MISSING = "must not be empty";
+
+    private final List<FieldErrorDTO> errors = new ArrayList<>();
+    private boolean missing;
+
+    /**
+     * Checks that a required field has a value, recording a "missing" error otherwise.
+     *
+     * @param field the name of the field
+     * @param value the value of the field
+     * @return {@code true} if the value is present, so the format checks of the field can run
+     */
+    public boolean require(String field, Object value) {
+        return require("", field, value);
+    }
+
+    /**
+     * Checks that a required field of a nested object has a value, recording a "missing" error otherwise.
+     * The full path of the field is only built when an error is recorded.
+     *
+     * @param path the path of the nested object, such as {@code cars[0].}
+     * @param field the name of the field
+     * @param value the value of the field
+     * @return {@code true} if the value is present, so the format checks of the field can run
+     */
+    public boolean require(String path, String field, Object value) {
+        if (value == null || (value instanceof String string && string.isEmpty())) {
+            missing = true;
+            errors.add(new FieldErrorDTO(path.concat(field), MISSING));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records an invalid value.
+     *
+     * @param field the name of the field
+     * @param message the reason the value is invalid
+     */
+    public void reject(String field, String message) {
+        reject("", field, message);
+    }
+
+    /**
+     * Records an invalid value of a field of a nested object.
+     *
+     * @param path the path of the nested object, such as {@code cars[0].}
+     * @param field the name of the field
+     * @param message the reason the value is invalid
+     */
+    public void reject(String path, String field, String message) {
+        errors.add(new FieldErrorDTO(path.concat(field), message));
+    }
+
+    /**
+     * Checks if no error was recorded.
+     *
+     * @return {@code true} if no error was recorded
+     */
+    public boolean isEmpty() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Gets the errors recorded so far.
+     *
+     * @return the field errors
+     */
+    public List<FieldErrorDTO> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Throws the errors recorded, if any.
+     *
+     * @throws ValidationException if at least one error was recorded
+     */
+    public void throwIfAny() {
+        if (!errors.isEmpty())
+            throw new ValidationException(missing ? "Missing fields" : "Invalid fields", errors);
+    }
+}
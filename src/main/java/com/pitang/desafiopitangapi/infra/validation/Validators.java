@@ -0,0 +1,97 @@
+package com.pitang.desafiopitangapi.infra.validation;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.regex.Pattern;
+
+/**
+ * Format checks shared by the validation of the entities.
+ * Patterns are compiled once, the license plate is checked by a hand-written scanner,
+ * and the current year is cached until the next new year, so a validation allocates almost nothing.
+ */
+public final class Validators {
+
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+
+    private static final Pattern PHONE_PATTERN =
+            Pattern.compile("^(\\+\\d{1,2}\\s?)?\\(?\\d{2,3}\\)?\\s?-?\\d{4,5}-?\\d{4}$|^\\d{8,9}$");
+
+    private static volatile CachedYear cachedYear = computeYear(System.currentTimeMillis());
+
+    private Validators() {
+    }
+
+    /**
+     * Checks if the value is a valid email address.
+     *
+     * @param value the value to check, not null
+     * @return {@code true} if the value is a valid email address
+     */
+    public static boolean isEmail(String value) {
+        return EMAIL_PATTERN.matcher(value).matches();
+    }
+
+    /**
+     * Checks if the value is a valid phone number, with optional country and area codes.
+     *
+     * @param value the value to check, not null
+     * @return {@code true} if the value is a valid phone number
+     */
+    public static boolean isPhone(String value) {
+        return PHONE_PATTERN.matcher(value).matches();
+    }
+
+    /**
+     * Checks if the value is a license plate in the format "XXX-1234": three uppercase letters,
+     * a hyphen and four digits.
+     *
+     * @param value the value to check, not null
+     * @return {@code true} if the value is a valid license plate
+     */
+    public static boolean isLicensePlate(String value) {
+        if (value.length() != 8 || value.charAt(3) != '-')
+            return false;
+        for (int i = 0; i < 3; i++) {
+            char c = value.charAt(i);
+            if (c < 'A' || c > 'Z')
+                return false;
+        }
+        for (int i = 4; i < 8; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9')
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the current year in the system time zone.
+     * The year is computed once and reused until the start of the next year.
+     *
+     * @return the current year
+     */
+    public static int currentYear() {
+        long now = System.currentTimeMillis();
+        CachedYear cached = cachedYear;
+        if (now >= cached.validUntil()) {
+            cached = computeYear(now);
+            cachedYear = cached;
+        }
+        return cached.year();
+    }
+
+    private static CachedYear computeYear(long now) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        long nextYear = today.withDayOfYear(1).plusYears(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new CachedYear(today.getYear(), nextYear);
+    }
+
+    /**
+     * A year and the instant, in epoch milliseconds, when it stops being the current year.
+     */
+    private record CachedYear(int year, long validUntil) {
+    }
+}
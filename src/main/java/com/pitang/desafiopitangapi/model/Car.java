@@ -1,25 +1,37 @@
 package com.pitang.desafiopitangapi.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
+import com.pitang.desafiopitangapi.infra.validation.ValidationErrors;
+import com.pitang.desafiopitangapi.infra.validation.Validators;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.http.HttpStatus;
-
-import java.time.LocalDateTime;
 
 /**
  * Represents a car entity.
  * This class is mapped to the "CARS" table in the database.
  */
 @Entity
-@Table(name = "CARS")
+@Table(name = "CARS",
+        uniqueConstraints = @UniqueConstraint(name = Car.LICENSE_PLATE_UNIQUE_CONSTRAINT, columnNames = "LICENSE_PLATE"),
+        indexes = {
+                @Index(name = "IDX_CARS_USER_ID", columnList = "USER_ID, CAR_ID"),
+                @Index(name = "IDX_CARS_USER_YEAR", columnList = "USER_ID, CAR_YEAR, CAR_ID"),
+                @Index(name = "IDX_CARS_USER_LICENSE_PLATE", columnList = "USER_ID, LICENSE_PLATE"),
+                @Index(name = "IDX_CARS_USER_MODEL", columnList = "USER_ID, MODEL, CAR_ID"),
+                @Index(name = "IDX_CARS_USER_COLOR", columnList = "USER_ID, COLOR, CAR_ID")
+        })
 @Getter @Setter @AllArgsConstructor @NoArgsConstructor
 public class Car {
 
+    /**
+     * Name of the unique constraint (and its index) on the license plate column.
+     */
+    public static final String LICENSE_PLATE_UNIQUE_CONSTRAINT = "UK_CARS_LICENSE_PLATE";
+
     /**
      * The unique identifier of the car.
      * It is generated automatically using UUID strategy.
@@ -38,7 +50,7 @@ public class Car {
 
     /**
      * The license plate of the car.
-     * This field is mandatory and follows a specific format: "XXX-1234".
+     * This field is mandatory, unique and follows a specific format: "XXX-1234".
      */
     @Column(name = "LICENSE_PLATE", nullable = false)
     private String licensePlate;
@@ -59,16 +71,26 @@ public class Car {
 
     /**
      * The user associated with the car.
-     * This is a many-to-one relationship to the User entity.
+     * This is a many-to-one relationship to the User entity, loaded only when accessed,
+     * so reading a car does not issue a second query for its owner.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "USER_ID")
     @JsonBackReference
     private User user;
 
+    /**
+     * The version of the car, incremented on every update.
+     * Returned to the clients and sent back on updates, so an update based on an outdated read is rejected
+     * instead of overwriting the changes made since; also used by Hibernate for optimistic locking.
+     */
+    @Version
+    @Column(name = "CAR_VERSION", nullable = false)
+    private Long version;
+
     /**
      * Validates the fields of the car.
-     * Throws a {@link BusinessException} if any of the fields are missing or invalid.
+     * Throws a {@link ValidationException} listing every missing or invalid field.
      * The validation checks include:
      * <ul>
      *     <li>Year cannot be in the future.</li>
@@ -77,22 +99,27 @@ public class Car {
      *     <li>Year, license plate, model, and color cannot be null.</li>
      * </ul>
      *
-     * @throws BusinessException if any validation fails.
+     * @throws ValidationException if any validation fails.
      */
     public void validate() {
-        if(year == null)
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(licensePlate == null || licensePlate.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(model == null || model.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(color == null || color.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-
-        if(year > LocalDateTime.now().getYear())
-            throw new BusinessException("Invalid fields", HttpStatus.BAD_REQUEST);
+        ValidationErrors errors = new ValidationErrors();
+        validate(errors, "");
+        errors.throwIfAny();
+    }
 
-        if(!licensePlate.matches("^[A-Z]{3}-\\d{4}$"))
-            throw new BusinessException("Invalid fields", HttpStatus.BAD_REQUEST);
+    /**
+     * Validates the fields of the car, recording every missing or invalid field in the given errors
+     * instead of stopping at the first one.
+     *
+     * @param errors The errors of the current validation.
+     * @param path The path of the car in the request body, prepended to the field names, such as {@code cars[0].}.
+     */
+    public void validate(ValidationErrors errors, String path) {
+        if (errors.require(path, "year", year) && year > Validators.currentYear())
+            errors.reject(path, "year", "must not be in the future");
+        if (errors.require(path, "licensePlate", licensePlate) && !Validators.isLicensePlate(licensePlate))
+            errors.reject(path, "licensePlate", "must match the pattern XXX-1234");
+        errors.require(path, "model", model);
+        errors.require(path, "color", color);
     }
 }
@@ -1,12 +1,14 @@
 package com.pitang.desafiopitangapi.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.pitang.desafiopitangapi.dto.UserDTO;
-import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
+import com.pitang.desafiopitangapi.infra.validation.ValidationErrors;
+import com.pitang.desafiopitangapi.infra.validation.Validators;
 import jakarta.persistence.*;
 import lombok.*;
-import org.springframework.http.HttpStatus;
 
 import java.time.LocalDate;
 import java.util.Date;
@@ -17,10 +19,23 @@ import java.util.List;
  * This class is mapped to the "USERS" table in the database.
  */
 @Entity
-@Table(name = "USERS")
+@Table(name = "USERS", uniqueConstraints = {
+        @UniqueConstraint(name = User.LOGIN_UNIQUE_CONSTRAINT, columnNames = "LOGIN"),
+        @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "EMAIL")
+})
 @Getter @Setter @AllArgsConstructor @NoArgsConstructor
 public class User {
 
+    /**
+     * Name of the unique constraint (and its index) on the login column.
+     */
+    public static final String LOGIN_UNIQUE_CONSTRAINT = "UK_USERS_LOGIN";
+
+    /**
+     * Name of the unique constraint (and its index) on the email column.
+     */
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "UK_USERS_EMAIL";
+
     /**
      * The unique identifier of the user.
      * It is generated automatically using UUID strategy.
@@ -46,7 +61,7 @@ public class User {
 
     /**
      * The email address of the user.
-     * This field is mandatory and must match a valid email format.
+     * This field is mandatory, unique and must match a valid email format.
      */
     @Column(name = "EMAIL", nullable = false)
     private String email;
@@ -61,7 +76,7 @@ public class User {
 
     /**
      * The login of the user.
-     * This field is mandatory.
+     * This field is mandatory and unique.
      */
     @Column(name = "LOGIN", nullable = false)
     private String login;
@@ -94,6 +109,14 @@ public class User {
     @Column(name = "LAST_LOGIN")
     private LocalDate lastLogin;
 
+    /**
+     * The version of the user's tokens, embedded in every token issued to the user.
+     * Incremented when the user is updated, which invalidates the tokens issued before.
+     */
+    @Column(name = "TOKEN_VERSION", nullable = false)
+    @JsonIgnore
+    private int tokenVersion;
+
     /**
      * The list of cars associated with the user.
      * This is a one-to-many relationship with the Car entity.
@@ -104,7 +127,7 @@ public class User {
 
     /**
      * Validates the fields of the user.
-     * Throws a {@link BusinessException} if any of the fields are missing or invalid.
+     * Throws a {@link ValidationException} listing every missing or invalid field.
      * The validation checks include:
      * <ul>
      *     <li>First name, last name, email, birthday, login, password, and phone cannot be null or empty.</li>
@@ -112,32 +135,30 @@ public class User {
      *     <li>Phone number must match a valid phone number pattern.</li>
      * </ul>
      *
-     * @throws BusinessException if any validation fails.
+     * @throws ValidationException if any validation fails.
      */
     public void validate() {
-        if(firstName == null || firstName.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(lastName == null || lastName.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(email == null || email.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(birthday == null)
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(login == null || login.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(password == null || password.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-        if(phone == null || phone.isEmpty())
-            throw new BusinessException("Missing fields", HttpStatus.BAD_REQUEST);
-
-        if (!email.matches("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$"))
-            throw new BusinessException("Invalid fields", HttpStatus.BAD_REQUEST);
-
-        String regex = "^(\\+\\d{1,2}\\s?)?\\(?\\d{2,3}\\)?\\s?-?\\d{4,5}-?\\d{4}$|^\\d{8,9}$";
-
-        if (!phone.matches(regex)) {
-            throw new BusinessException("Invalid fields", HttpStatus.BAD_REQUEST);
-        }
+        ValidationErrors errors = new ValidationErrors();
+        validate(errors);
+        errors.throwIfAny();
+    }
+
+    /**
+     * Validates the fields of the user, recording every missing or invalid field in the given errors
+     * instead of stopping at the first one.
+     *
+     * @param errors The errors of the current validation.
+     */
+    public void validate(ValidationErrors errors) {
+        errors.require("firstName", firstName);
+        errors.require("lastName", lastName);
+        if (errors.require("email", email) && !Validators.isEmail(email))
+            errors.reject("email", "must be a valid email address");
+        errors.require("birthday", birthday);
+        errors.require("login", login);
+        errors.require("password", password);
+        if (errors.require("phone", phone) && !Validators.isPhone(phone))
+            errors.reject("phone", "must be a valid phone number");
     }
 
     /**
@@ -147,16 +168,7 @@ public class User {
      * @return A {@link UserDTO} containing the user's data.
      */
     public static UserDTO toDTO(User user){
-        UserDTO userDTO = new UserDTO();
-        userDTO.setId(user.getId());
-        userDTO.setFirstName(user.getFirstName());
-        userDTO.setLastName(user.getLastName());
-        userDTO.setEmail(user.getEmail());
-        userDTO.setBirthday(user.getBirthday());
-        userDTO.setLogin(user.getLogin());
-        userDTO.setPhone(user.getPhone());
-        userDTO.setCreatedAt(user.getCreatedAt());
-        userDTO.setLastLogin(user.getLastLogin());
-        return userDTO;
+        return UserDTO.of(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getBirthday(),
+                user.getLogin(), user.getPhone(), user.getCreatedAt(), user.getLastLogin());
     }
 }
@@ -1,26 +1,25 @@
 package com.pitang.desafiopitangapi.repository;
 
+import com.pitang.desafiopitangapi.dto.CarView;
 import com.pitang.desafiopitangapi.model.Car;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository interface for performing CRUD operations on the {@link Car} entity.
- * Extends {@link JpaRepository} to provide standard JPA functionality.
+ * Extends {@link JpaRepository} to provide standard JPA functionality
+ * and {@link CarViewRepository} to run the queries built by {@link CarSpecifications}.
  */
 @Repository
-public interface CarRepository extends JpaRepository<Car, String> {
-
-    /**
-     * Checks if a car with the given license plate already exists in the database.
-     *
-     * @param licensePlate The license plate of the car to be checked.
-     * @return {@code true} if a car with the given license plate exists, {@code false} otherwise.
-     */
-    boolean existsByLicensePlate(String licensePlate);
+public interface CarRepository extends JpaRepository<Car, String>, CarViewRepository {
 
     /**
      * Retrieves a list of cars associated with the user specified by their ID.
@@ -38,4 +37,33 @@ public interface CarRepository extends JpaRepository<Car, String> {
      * @return An {@link Optional} containing the car if found, or an empty {@link Optional} if not found.
      */
     Optional<Car> findByIdAndUserId(String carId, String userId);
+
+    /**
+     * Retrieves the projection of a car by its ID and the ID of the user who owns it.
+     *
+     * @param carId The ID of the car to be retrieved.
+     * @param userId The ID of the user who owns the car.
+     * @return An {@link Optional} containing the car projection if found, or an empty {@link Optional} if not found.
+     */
+    Optional<CarView> findViewByIdAndUserId(String carId, String userId);
+
+    /**
+     * Retrieves which of the given license plates are already registered, in a single query.
+     *
+     * @param licensePlates The license plates to be checked.
+     * @return The license plates among the given ones that already exist in the database.
+     */
+    @Query("SELECT c.licensePlate FROM Car c WHERE c.licensePlate IN :licensePlates")
+    List<String> findExistingLicensePlates(@Param("licensePlates") Collection<String> licensePlates);
+
+    /**
+     * Deletes all the cars of the given user with a single bulk statement, without loading them.
+     *
+     * @param userId The ID of the user whose cars are to be deleted.
+     * @return The number of cars deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Car c WHERE c.user.id = :userId")
+    int deleteAllByUserIdInBulk(@Param("userId") String userId);
 }
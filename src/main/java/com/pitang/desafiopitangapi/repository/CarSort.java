@@ -0,0 +1,73 @@
+package com.pitang.desafiopitangapi.repository;
+
+import com.pitang.desafiopitangapi.dto.CarView;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Fields by which the cars of the logged-in user can be sorted in a paginated listing.
+ * Each field knows how to read its value from a {@link CarView} and how to parse it back from a page cursor,
+ * so {@link CarSpecifications} can build the keyset condition of the next page.
+ */
+public enum CarSort {
+
+    ID("id", CarView::id, value -> value),
+    YEAR("year", CarView::year, Integer::valueOf),
+    LICENSE_PLATE("licensePlate", CarView::licensePlate, value -> value),
+    MODEL("model", CarView::model, value -> value),
+    COLOR("color", CarView::color, value -> value);
+
+    private final String attribute;
+    private final Function<CarView, Comparable<?>> getter;
+    private final Function<String, Comparable<?>> parser;
+
+    CarSort(String attribute, Function<CarView, Comparable<?>> getter, Function<String, Comparable<?>> parser) {
+        this.attribute = attribute;
+        this.getter = getter;
+        this.parser = parser;
+    }
+
+    /**
+     * Gets the name of the {@link com.pitang.desafiopitangapi.model.Car} attribute sorted by this field.
+     *
+     * @return the attribute name
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Reads the value of this field from a car projection.
+     *
+     * @param car the car projection
+     * @return the value of the field
+     */
+    public Comparable<?> valueOf(CarView car) {
+        return getter.apply(car);
+    }
+
+    /**
+     * Parses a value of this field written in a page cursor.
+     *
+     * @param value the value as written in the cursor
+     * @return the parsed value
+     */
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * Finds the sort field by its attribute name, ignoring case.
+     *
+     * @param attribute the attribute name received in the request
+     * @return an {@link Optional} containing the sort field, or an empty {@link Optional} if there is none with the given name
+     */
+    public static Optional<CarSort> fromAttribute(String attribute) {
+        for (CarSort sort : values()) {
+            if (sort.attribute.equalsIgnoreCase(attribute))
+                return Optional.of(sort);
+        }
+        return Optional.empty();
+    }
+}
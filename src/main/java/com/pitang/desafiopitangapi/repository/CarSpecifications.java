@@ -0,0 +1,90 @@
+package com.pitang.desafiopitangapi.repository;
+
+import com.pitang.desafiopitangapi.dto.CarFilterDTO;
+import com.pitang.desafiopitangapi.model.Car;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Factory of {@link Specification}s used to query the {@link Car} entity with {@link CarRepository}.
+ * Every query starts from the owner of the cars, so it is served by the composite indexes on {@code USER_ID}.
+ */
+public final class CarSpecifications {
+
+    private CarSpecifications() {
+    }
+
+    /**
+     * Restricts the cars to those owned by the given user.
+     *
+     * @param userId The ID of the owner.
+     * @return the specification
+     */
+    public static Specification<Car> ownedBy(String userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    /**
+     * Restricts the cars to those matching every non-null filter.
+     *
+     * @param filter The filters to apply, or {@code null} for no filter.
+     * @return the specification
+     */
+    public static Specification<Car> matching(CarFilterDTO filter) {
+        return (root, query, cb) -> {
+            if (filter == null)
+                return cb.conjunction();
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.yearFrom() != null)
+                predicates.add(cb.greaterThanOrEqualTo(root.get("year"), filter.yearFrom()));
+            if (filter.yearTo() != null)
+                predicates.add(cb.lessThanOrEqualTo(root.get("year"), filter.yearTo()));
+            if (filter.model() != null && !filter.model().isEmpty())
+                predicates.add(cb.equal(root.get("model"), filter.model()));
+            if (filter.color() != null && !filter.color().isEmpty())
+                predicates.add(cb.equal(root.get("color"), filter.color()));
+            if (filter.licensePlate() != null && !filter.licensePlate().isEmpty())
+                predicates.add(cb.like(root.get("licensePlate"), escapeLike(filter.licensePlate()) + "%", '\\'));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Restricts the cars to those placed after the last car of the previous page, for keyset pagination.
+     * Ties on the sort field are broken by the car ID.
+     *
+     * @param sort The field the listing is sorted by.
+     * @param direction The direction of the sort.
+     * @param value The value of the sort field in the last car of the previous page.
+     * @param id The ID of the last car of the previous page.
+     * @return the specification
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Car> after(CarSort sort, Sort.Direction direction, Comparable value, String id) {
+        return (root, query, cb) -> {
+            Path<String> carId = root.get("id");
+            Predicate afterId = direction.isAscending() ? cb.greaterThan(carId, id) : cb.lessThan(carId, id);
+            if (sort == CarSort.ID)
+                return afterId;
+
+            Path<Comparable> field = root.get(sort.getAttribute());
+            Predicate afterValue = direction.isAscending() ? cb.greaterThan(field, value) : cb.lessThan(field, value);
+            return cb.or(afterValue, cb.and(cb.equal(field, value), afterId));
+        };
+    }
+
+    /**
+     * Escapes the wildcards of a LIKE pattern with a backslash.
+     *
+     * @param value The raw value.
+     * @return the escaped value
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
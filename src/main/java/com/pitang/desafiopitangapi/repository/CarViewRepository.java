@@ -0,0 +1,24 @@
+package com.pitang.desafiopitangapi.repository;
+
+import com.pitang.desafiopitangapi.dto.CarView;
+import com.pitang.desafiopitangapi.model.Car;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Repository fragment for querying {@link CarView} projections with the {@link Specification}s built by {@link CarSpecifications}.
+ */
+public interface CarViewRepository {
+
+    /**
+     * Retrieves the projections of the cars matching the given specification.
+     *
+     * @param specification The conditions the cars must match.
+     * @param sort The order of the cars.
+     * @param limit The maximum number of cars to retrieve.
+     * @return A list of car projections.
+     */
+    List<CarView> findViews(Specification<Car> specification, Sort sort, int limit);
+}
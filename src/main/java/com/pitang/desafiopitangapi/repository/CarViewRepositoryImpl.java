@@ -0,0 +1,40 @@
+package com.pitang.desafiopitangapi.repository;
+
+import com.pitang.desafiopitangapi.dto.CarView;
+import com.pitang.desafiopitangapi.model.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link CarViewRepository} selecting only the projected columns with a constructor expression.
+ */
+class CarViewRepositoryImpl implements CarViewRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CarView> findViews(Specification<Car> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CarView> query = cb.createQuery(CarView.class);
+        Root<Car> root = query.from(Car.class);
+
+        query.select(cb.construct(CarView.class,
+                root.get("id"), root.get("year"), root.get("licensePlate"), root.get("model"), root.get("color"),
+                root.get("version")));
+        query.where(specification.toPredicate(root, query, cb));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
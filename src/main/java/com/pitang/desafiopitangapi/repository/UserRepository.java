@@ -1,9 +1,22 @@
 package com.pitang.desafiopitangapi.repository;
 
+import com.pitang.desafiopitangapi.dto.UserSummary;
 import com.pitang.desafiopitangapi.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for performing CRUD operations on the {@link User} entity.
@@ -20,18 +33,62 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByLogin(String login);
 
     /**
-     * Checks if a user with the given login exists in the database.
+     * Retrieves a user by their login together with their cars, in a single query.
      *
-     * @param login The login to check for existence.
-     * @return {@code true} if a user with the given login exists, {@code false} otherwise.
+     * @param login The login of the user to be retrieved.
+     * @return An {@link Optional} containing the user and their cars if found, or an empty {@link Optional} if not found.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.cars WHERE u.login = :login")
+    Optional<User> findByLoginWithCars(@Param("login") String login);
+
+    /**
+     * Retrieves the token version of a user by their ID.
+     *
+     * @param id The ID of the user.
+     * @return An {@link Optional} containing the token version if the user exists, or an empty {@link Optional} if not.
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") String id);
+
+    /**
+     * Retrieves the projection of a user by their ID.
+     *
+     * @param id The ID of the user to be retrieved.
+     * @return An {@link Optional} containing the user projection if found, or an empty {@link Optional} if not found.
+     */
+    Optional<UserSummary> findSummaryById(String id);
+
+    /**
+     * Retrieves the projections of the users whose ID is greater than the given cursor, used for keyset pagination.
+     * The order and the number of users are given by the {@link Pageable}, which should always request the first page.
+     *
+     * @param id The ID of the last user of the previous page, or an empty string for the first page.
+     * @param pageable The page size and the sort by ID.
+     * @return A list of user projections after the given cursor.
+     */
+    List<UserSummary> findSummariesByIdGreaterThan(String id, Pageable pageable);
+
+    /**
+     * Streams the projections of all users ordered by ID from a JDBC cursor, fetching a limited number of rows at a time.
+     * Must be called inside a transaction and the stream must be closed after use.
+     *
+     * @return A stream of all user projections.
      */
-    boolean existsByLogin(String login);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.pitang.desafiopitangapi.dto.UserSummary(u.id, u.firstName, u.lastName, u.email, u.birthday, " +
+            "u.login, u.phone, u.createdAt, u.lastLogin) FROM User u ORDER BY u.id")
+    Stream<UserSummary> streamAll();
 
     /**
-     * Checks if a user with the given email exists in the database.
+     * Sets the last login date of the given users with a single bulk statement, without loading them.
+     * Users whose last login is already on or after the given date are not changed.
      *
-     * @param email The email to check for existence.
-     * @return {@code true} if a user with the given email exists, {@code false} otherwise.
+     * @param ids The IDs of the users who signed in.
+     * @param lastLogin The date of the sign-in.
+     * @return The number of users updated.
      */
-    boolean existsByEmail(String email);
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.lastLogin = :lastLogin WHERE u.id IN :ids AND (u.lastLogin IS NULL OR u.lastLogin < :lastLogin)")
+    int updateLastLogin(@Param("ids") Collection<String> ids, @Param("lastLogin") LocalDate lastLogin);
 }
@@ -1,154 +1,337 @@
 package com.pitang.desafiopitangapi.service;
 
+import com.pitang.desafiopitangapi.dto.CarFilterDTO;
+import com.pitang.desafiopitangapi.dto.CarView;
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
 import com.pitang.desafiopitangapi.exceptions.BusinessException;
-import com.pitang.desafiopitangapi.infra.security.TokenService;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
+import com.pitang.desafiopitangapi.infra.persistence.ConstraintViolations;
+import com.pitang.desafiopitangapi.infra.validation.ValidationErrors;
 import com.pitang.desafiopitangapi.model.Car;
 import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.repository.CarRepository;
-import com.pitang.desafiopitangapi.repository.UserRepository;
+import com.pitang.desafiopitangapi.repository.CarSort;
+import com.pitang.desafiopitangapi.repository.CarSpecifications;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service class for handling car-related operations such as registration, update, retrieval, and deletion.
- * It interacts with the {@link CarRepository}, {@link UserRepository}, and {@link TokenService}.
+ * It interacts with the {@link CarRepository} and receives the logged-in user already resolved by the security filter.
  */
 @Service
 public class CarService {
 
-    @Autowired
-    CarRepository carRepository;
+    /**
+     * Maximum number of cars returned in a single page.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
 
-    @Autowired
-    TokenService tokenService;
+    /**
+     * Maximum number of cars registered in a single batch.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
 
     @Autowired
-    UserRepository userRepository;
+    CarRepository carRepository;
 
     /**
-     * Registers a new car. Validates the car details, associates it with the logged-in user (based on token),
-     * and checks if the license plate is already in use.
+     * Registers a new car. Validates the car details and associates it with the given user.
+     * A license plate already in use is detected by the unique constraint of the table.
      *
      * @param car The car to be registered.
-     * @param request The HTTP request containing the user's authentication token.
+     * @param user The owner of the car, or {@code null} to keep the user already set on the car.
      * @return The saved car entity.
      * @throws BusinessException if the license plate already exists or if validation fails.
      */
-    public Car register(Car car, HttpServletRequest request) {
+    public Car register(Car car, User user) {
         car.validate();
-        if (request != null) {
-            User user = getUserByToken(request);
+        car.setVersion(null);
+        if (user != null) {
             car.setUser(user);
         }
-        if (carRepository.existsByLicensePlate(car.getLicensePlate())) {
+        return saveCar(car);
+    }
+
+    /**
+     * Registers a list of cars in a single transaction. All the cars are validated, their license plates are
+     * checked with a single query, and the inserts are sent to the database in JDBC batches.
+     *
+     * @param cars The cars to be registered.
+     * @param user The owner of the cars, or {@code null} to keep the user already set on each car.
+     * @return The saved car entities.
+     * @throws ValidationException if validation fails or if a license plate is repeated in the list.
+     * @throws BusinessException if a license plate already exists or if there are more than {@link #MAX_BATCH_SIZE} cars.
+     */
+    @Transactional
+    public List<Car> registerAll(List<Car> cars, User user) {
+        validateCarList(cars);
+
+        Set<String> licensePlates = new HashSet<>();
+        for (Car car : cars) {
+            licensePlates.add(car.getLicensePlate());
+            car.setVersion(null);
+            if (user != null)
+                car.setUser(user);
+        }
+        if (!licensePlates.isEmpty() && !carRepository.findExistingLicensePlates(licensePlates).isEmpty())
             throw new BusinessException("License plate already exists", HttpStatus.BAD_REQUEST);
+
+        try {
+            return carRepository.saveAllAndFlush(cars);
+        } catch (DataIntegrityViolationException exception) {
+            throw licensePlateException(exception);
         }
-        return carRepository.save(car);
     }
 
     /**
      * Finds all cars associated with the logged-in user.
      *
-     * @param request The HTTP request containing the user's authentication token.
+     * @param user The logged-in user.
      * @return A list of cars associated with the logged-in user.
      */
-    public List<Car> findAllByLoggedUser(HttpServletRequest request) {
-        User user = getUserByToken(request);
+    public List<Car> findAllByLoggedUser(User user) {
         return carRepository.findByUserId(user.getId());
     }
 
+    /**
+     * Finds a page of the cars of the logged-in user matching the given filters, using keyset pagination.
+     * Cars are sorted by the given field and then by ID, and the page size is limited to {@link #MAX_PAGE_SIZE}.
+     *
+     * @param user The logged-in user.
+     * @param filter The filters to apply.
+     * @param sort The name of the field to sort by.
+     * @param direction The direction of the sort, {@code asc} or {@code desc}.
+     * @param after The cursor returned by the previous page, or {@code null} for the first page.
+     * @param size The number of cars requested.
+     * @return A page of car projections, with the cursor of the next page if there is one.
+     * @throws BusinessException if the sort, the direction or the cursor is invalid.
+     */
+    public CursorPageDTO<CarView> findAllByLoggedUser(User user, CarFilterDTO filter, String sort, String direction, String after, int size) {
+        CarSort carSort = CarSort.fromAttribute(sort)
+                .orElseThrow(() -> new BusinessException("Invalid sort", HttpStatus.BAD_REQUEST));
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new BusinessException("Invalid sort direction", HttpStatus.BAD_REQUEST));
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Specification<Car> specification = CarSpecifications.ownedBy(user.getId()).and(CarSpecifications.matching(filter));
+        if (after != null && !after.isEmpty())
+            specification = specification.and(afterCursor(after, carSort, sortDirection));
+
+        Sort order = carSort == CarSort.ID
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, carSort.getAttribute(), "id");
+        List<CarView> cars = carRepository.findViews(specification, order, pageSize + 1);
+
+        if (cars.size() <= pageSize)
+            return new CursorPageDTO<>(cars, null);
+        List<CarView> content = cars.subList(0, pageSize);
+        return new CursorPageDTO<>(content, cursorOf(content.getLast(), carSort));
+    }
+
     /**
      * Finds a car by its ID and ensures it belongs to the logged-in user.
      *
      * @param id The ID of the car to be retrieved.
-     * @param request The HTTP request containing the user's authentication token.
+     * @param user The logged-in user.
      * @return The car entity if found.
      * @throws EntityNotFoundException if the car is not found or does not belong to the logged-in user.
      */
-    public Car findByIdAndLoggedUser(String id, HttpServletRequest request) {
-        User user = getUserByToken(request);
+    public Car findByIdAndLoggedUser(String id, User user) {
         return carRepository.findByIdAndUserId(id, user.getId())
                 .orElseThrow(() -> new EntityNotFoundException("Car Not Found"));
     }
 
     /**
-     * Updates a car's details. The car is validated, and the user's token is verified before making the update.
-     * It checks whether the new license plate is already in use.
+     * Finds the projection of a car by its ID and ensures it belongs to the logged-in user.
+     *
+     * @param id The ID of the car to be retrieved.
+     * @param user The logged-in user.
+     * @return The car projection if found.
+     * @throws EntityNotFoundException if the car is not found or does not belong to the logged-in user.
+     */
+    public CarView findViewByIdAndLoggedUser(String id, User user) {
+        return carRepository.findViewByIdAndUserId(id, user.getId())
+                .orElseThrow(() -> new EntityNotFoundException("Car Not Found"));
+    }
+
+    /**
+     * Updates a car's details. The car is validated, and loaded with a single query by its ID and owner,
+     * so the cost of the update does not depend on how many cars the user has.
+     * When the request carries the version the client read, it must still be the current version of the car,
+     * so an update based on an outdated read does not overwrite the changes made since.
+     * The new values are copied onto the loaded car and flushed as an update conditioned on its version,
+     * which also rejects an update committed by another request in the meantime.
+     * A license plate already in use is detected by the unique constraint of the table.
      *
      * @param id The ID of the car to be updated.
      * @param car The updated car entity.
-     * @param request The HTTP request containing the user's authentication token.
+     * @param user The logged-in user.
      * @return The updated car entity.
      * @throws EntityNotFoundException if the car does not exist or does not belong to the logged-in user.
-     * @throws BusinessException if the license plate is already in use.
+     * @throws BusinessException if the license plate is already in use, or with a 409 CONFLICT status
+     *                           if the car was updated since the client read it.
      */
-    public Car update(String id, Car car, HttpServletRequest request) {
-        car.setId(id);
+    @Transactional
+    public Car update(String id, Car car, User user) {
         car.validate();
-        User user = getUserByToken(request);
-        car.setUser(user);
-
-        for (Car validationCar : user.getCars()) {
-            if (validationCar.getId().equals(id)) {
-                if (!validationCar.getLicensePlate().equals(car.getLicensePlate()) && carRepository.existsByLicensePlate(car.getLicensePlate())) {
-                    throw new BusinessException("License plate already exists", HttpStatus.BAD_REQUEST);
-                }
-                return carRepository.save(car);
-            }
+
+        Car existing = findByIdAndLoggedUser(id, user);
+        if (car.getVersion() != null && !car.getVersion().equals(existing.getVersion()))
+            throw modifiedException();
+        existing.setYear(car.getYear());
+        existing.setLicensePlate(car.getLicensePlate());
+        existing.setModel(car.getModel());
+        existing.setColor(car.getColor());
+        try {
+            carRepository.flush();
+        } catch (DataIntegrityViolationException exception) {
+            throw licensePlateException(exception);
+        } catch (OptimisticLockingFailureException exception) {
+            throw modifiedException();
         }
-        throw new EntityNotFoundException("Car Not Found");
+        return existing;
     }
 
     /**
      * Deletes a car based on its ID, ensuring it belongs to the logged-in user.
      *
      * @param id The ID of the car to be deleted.
-     * @param request The HTTP request containing the user's authentication token.
+     * @param user The logged-in user.
      * @throws EntityNotFoundException if the car is not found or does not belong to the logged-in user.
      */
-    public void delete(String id, HttpServletRequest request) {
-        Car car = findByIdAndLoggedUser(id, request);
+    public void delete(String id, User user) {
+        Car car = findByIdAndLoggedUser(id, user);
         carRepository.delete(car);
     }
 
     /**
-     * Deletes the specified car.
+     * Deletes all the cars of the specified user with a single statement.
      *
-     * @param car The car to be deleted.
+     * @param userId The ID of the user whose cars are to be deleted.
      */
-    public void deleteByCar(Car car) {
-        carRepository.delete(car);
+    public void deleteAllByUser(String userId) {
+        carRepository.deleteAllByUserIdInBulk(userId);
     }
 
     /**
-     * Validates a list of cars by calling the {@link Car#validate()} method for each car in the list.
+     * Validates a list of cars, reporting the missing and invalid fields of every car together.
      *
      * @param list The list of cars to be validated.
-     * @throws BusinessException if any car in the list is invalid.
+     * @throws ValidationException if any car in the list is invalid or if a license plate is repeated in the list.
+     * @throws BusinessException if there are more than {@link #MAX_BATCH_SIZE} cars.
      */
     public void validateCarList(List<Car> list) {
-        for (Car car : list) {
-            car.validate();
+        ValidationErrors errors = new ValidationErrors();
+        validateCarList(list, errors, "");
+        errors.throwIfAny();
+    }
+
+    /**
+     * Validates a list of cars, recording the missing and invalid fields of every car in the given errors.
+     * The fields are reported with the index of the car in the list, such as {@code cars[1].licensePlate},
+     * and a license plate repeated in the list is reported on every car after the first one.
+     * Since nothing is checked against the database, the list can be validated before anything is saved.
+     *
+     * @param list The list of cars to be validated.
+     * @param errors The errors of the current validation.
+     * @param path The path of the list in the request body, such as {@code cars}.
+     * @throws BusinessException if there are more than {@link #MAX_BATCH_SIZE} cars, before any car is validated.
+     */
+    public void validateCarList(List<Car> list, ValidationErrors errors, String path) {
+        if (list.size() > MAX_BATCH_SIZE)
+            throw new BusinessException("Too many cars", HttpStatus.BAD_REQUEST);
+        Set<String> licensePlates = new HashSet<>();
+        for (int i = 0; i < list.size(); i++) {
+            Car car = list.get(i);
+            String carPath = path + "[" + i + "].";
+            car.validate(errors, carPath);
+            if (car.getLicensePlate() != null && !licensePlates.add(car.getLicensePlate()))
+                errors.reject(carPath, "licensePlate", "must not be repeated");
         }
     }
 
     /**
-     * Retrieves the logged-in user based on the authentication token from the HTTP request.
+     * Saves the car, translating a violation of the license plate unique constraint into a {@link BusinessException}.
      *
-     * @param request The HTTP request containing the authentication token.
-     * @return The user associated with the token.
-     * @throws BadCredentialsException if the token is invalid or the user is not found.
+     * @param car The car to be saved.
+     * @return The saved car entity.
+     * @throws BusinessException if the license plate already exists.
+     */
+    private Car saveCar(Car car) {
+        try {
+            return carRepository.save(car);
+        } catch (DataIntegrityViolationException exception) {
+            throw licensePlateException(exception);
+        }
+    }
+
+    /**
+     * Builds the exception thrown when a car was updated by another request since it was read.
+     *
+     * @return The exception with a 409 CONFLICT status.
      */
-    public User getUserByToken(HttpServletRequest request) {
-        var token = this.tokenService.recoverToken(request);
-        var login = tokenService.verifyToken(token);
-        return userRepository.findByLogin(login)
-                .orElseThrow(() -> new BadCredentialsException("Invalid login"));
+    private static BusinessException modifiedException() {
+        return new BusinessException("Car was modified by another request", HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Translates a violation of the license plate unique constraint into a {@link BusinessException}.
+     * Any other violation is returned unchanged.
+     *
+     * @param exception The exception thrown when saving a car.
+     * @return The exception to be thrown.
+     */
+    private static RuntimeException licensePlateException(DataIntegrityViolationException exception) {
+        if (ConstraintViolations.isViolationOf(exception, Car.LICENSE_PLATE_UNIQUE_CONSTRAINT))
+            return new BusinessException("License plate already exists", HttpStatus.BAD_REQUEST);
+        return exception;
+    }
+
+    /**
+     * Builds the opaque cursor pointing after the given car: the value of the sort field and the car ID, Base64 encoded.
+     *
+     * @param car The last car of the page.
+     * @param sort The field the listing is sorted by.
+     * @return The cursor of the next page.
+     */
+    private static String cursorOf(CarView car, CarSort sort) {
+        String cursor = sort.valueOf(car) + "|" + car.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor built by {@link #cursorOf(CarView, CarSort)} into the specification of the cars placed after it.
+     *
+     * @param cursor The cursor received in the request.
+     * @param sort The field the listing is sorted by.
+     * @param direction The direction of the sort.
+     * @return The specification of the cars after the cursor.
+     * @throws BusinessException if the cursor is malformed.
+     */
+    private static Specification<Car> afterCursor(String cursor, CarSort sort, Sort.Direction direction) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0)
+                throw new BusinessException("Invalid cursor", HttpStatus.BAD_REQUEST);
+            Comparable<?> value = sort.parse(decoded.substring(0, separator));
+            return CarSpecifications.after(sort, direction, value, decoded.substring(separator + 1));
+        } catch (IllegalArgumentException exception) {
+            throw new BusinessException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
     }
 }
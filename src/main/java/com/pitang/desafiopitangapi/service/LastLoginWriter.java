@@ -0,0 +1,76 @@
+package com.pitang.desafiopitangapi.service;
+
+import com.pitang.desafiopitangapi.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class that writes the last login dates of the users in the background.
+ * Sign-ins only record the date in memory; a scheduled task writes the recorded dates with one bulk
+ * {@code UPDATE} per date, so repeated sign-ins of the same user are coalesced into a single write
+ * and no write happens on the sign-in request itself.
+ */
+@Slf4j
+@Service
+public class LastLoginWriter {
+
+    /**
+     * Maximum number of users updated by a single statement.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    @Autowired
+    UserRepository userRepository;
+
+    /**
+     * Sign-ins not written yet, indexed by user ID.
+     */
+    private final Map<String, LocalDate> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Records the sign-in of a user, to be written by the next flush.
+     *
+     * @param id The ID of the user.
+     * @param lastLogin The date of the sign-in.
+     */
+    public void record(String id, LocalDate lastLogin) {
+        pending.put(id, lastLogin);
+    }
+
+    /**
+     * Writes the recorded sign-ins, grouped by date in statements of up to {@link #MAX_BATCH_SIZE} users.
+     * Sign-ins whose write fails are recorded again to be retried by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${api.users.last-login.flush-interval-millis}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty())
+            return;
+
+        Map<LocalDate, List<String>> idsByDate = new HashMap<>();
+        for (String id : pending.keySet()) {
+            LocalDate lastLogin = pending.remove(id);
+            if (lastLogin != null)
+                idsByDate.computeIfAbsent(lastLogin, date -> new ArrayList<>()).add(id);
+        }
+
+        idsByDate.forEach((lastLogin, ids) -> {
+            for (int from = 0; from < ids.size(); from += MAX_BATCH_SIZE) {
+                List<String> batch = ids.subList(from, Math.min(from + MAX_BATCH_SIZE, ids.size()));
+                try {
+                    userRepository.updateLastLogin(batch, lastLogin);
+                } catch (RuntimeException exception) {
+                    log.warn("Failed to write the last login of {} users, retrying on the next flush", batch.size(), exception);
+                    batch.forEach(id -> pending.putIfAbsent(id, lastLogin));
+                }
+            }
+        });
+    }
+}
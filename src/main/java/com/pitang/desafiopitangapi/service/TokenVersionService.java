@@ -0,0 +1,71 @@
+package com.pitang.desafiopitangapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pitang.desafiopitangapi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Service class holding the current token version of each user in memory, so a token can be checked
+ * against updates and deletions of its user without querying the database on every request.
+ * The version of a user is loaded from the database the first time it is needed and kept up to date
+ * by {@link UserService} when the user is registered, updated or deleted; deleted users are kept as revoked.
+ * The table is bounded, and an evicted user is simply loaded again.
+ * The table is local to the instance, so changes made through another instance are only seen once the entry expires;
+ * the expiration bounds how long a revoked token may still be accepted by the other instances.
+ */
+@Service
+public class TokenVersionService {
+
+    /**
+     * Version of a user that no longer exists, never matching the version of a token.
+     */
+    static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<String, Integer> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               @Value("${api.security.token.versions.max-size}") long maxSize,
+                               @Value("${api.security.token.versions.expire-after-write-seconds}") long expireAfterWriteSeconds) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .build();
+    }
+
+    /**
+     * Checks if a token version is the current version of the user.
+     *
+     * @param userId The ID of the user.
+     * @param version The version of the token.
+     * @return {@code true} if the user exists and the token has their current version.
+     */
+    public boolean isCurrent(String userId, int version) {
+        Integer current = versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(REVOKED));
+        return current != REVOKED && current == version;
+    }
+
+    /**
+     * Sets the current token version of a user. Must be called after the user is registered or updated.
+     *
+     * @param userId The ID of the user.
+     * @param version The current token version of the user.
+     */
+    public void update(String userId, int version) {
+        versions.put(userId, version);
+    }
+
+    /**
+     * Revokes every token of a user. Must be called after the user is deleted.
+     *
+     * @param userId The ID of the deleted user.
+     */
+    public void revoke(String userId) {
+        versions.put(userId, REVOKED);
+    }
+}
@@ -1,97 +1,160 @@
 package com.pitang.desafiopitangapi.service;
 
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
 import com.pitang.desafiopitangapi.dto.UserDTO;
+import com.pitang.desafiopitangapi.dto.UserSummary;
 import com.pitang.desafiopitangapi.dto.ResponseDTO;
 import com.pitang.desafiopitangapi.exceptions.BusinessException;
-import com.pitang.desafiopitangapi.infra.security.TokenService;
-import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
+import com.pitang.desafiopitangapi.infra.persistence.ConstraintViolations;
+import com.pitang.desafiopitangapi.infra.validation.ValidationErrors;
 import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.repository.UserRepository;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for handling user-related operations such as registration, update, retrieval, and deletion.
- * It interacts with the {@link UserRepository}, {@link CarService}, and {@link TokenService}.
+ * It interacts with the {@link UserRepository}, {@link CarService}, {@link LastLoginWriter},
+ * and {@link TokenVersionService}.
  */
 @Service
 public class UserService {
 
+    /**
+     * Maximum number of users returned in a single page.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final CarService carService;
     private final PasswordEncoder passwordEncoder;
-    private final TokenService tokenService;
+    private final LastLoginWriter lastLoginWriter;
+    private final TokenVersionService tokenVersionService;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, TokenService tokenService, CarService carService) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, CarService carService,
+                       LastLoginWriter lastLoginWriter, TokenVersionService tokenVersionService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.tokenService = tokenService;
         this.carService = carService;
+        this.lastLoginWriter = lastLoginWriter;
+        this.tokenVersionService = tokenVersionService;
     }
 
     /**
-     * Registers a new user. Validates the user details, checks for duplicate login and email,
-     * encrypts the password, and saves the user to the repository. Also registers any cars associated with the user.
+     * Registers a new user. Validates the user details, encrypts the password, and saves the user to the repository.
+     * The user and its cars are validated in a single pass before any query runs, reporting every invalid field at once.
+     * Duplicate login and email are detected by the unique constraints of the table. Also registers any cars associated with the user,
+     * in the same transaction, so the user is not kept if a car is rejected. The token version of the user is only
+     * recorded once the transaction commits.
      *
      * @param userDTO The user data transfer object containing the user's details.
      * @return The registered user data transfer object.
-     * @throws BusinessException if the login or email already exists or if the validation fails.
+     * @throws ValidationException if any field of the user or of its cars is missing or invalid.
+     * @throws BusinessException if the login, email or a license plate already exists, if there are too many cars,
+     *                           or with a 503 status if the password hashing pool is saturated.
      */
+    @Transactional
     public UserDTO register(UserDTO userDTO) throws BusinessException {
-        if (userRepository.existsByLogin(userDTO.getLogin())) {
-            throw new BusinessException("Login already exists", HttpStatus.BAD_REQUEST);
-        }
-        if (userRepository.existsByEmail(userDTO.getEmail())) {
-            throw new BusinessException("Email already exists", HttpStatus.BAD_REQUEST);
-        }
         User newUser = UserDTO.toEntity(userDTO);
-        newUser.validate();
+        ValidationErrors errors = new ValidationErrors();
+        newUser.validate(errors);
         if (newUser.getCars() != null)
-            carService.validateCarList(newUser.getCars());
+            carService.validateCarList(newUser.getCars(), errors, "cars");
+        errors.throwIfAny();
 
         newUser.setPassword(passwordEncoder.encode(newUser.getPassword()));
-        this.userRepository.save(newUser);
+        saveUser(newUser);
+        if (newUser.getCars() != null)
+            carService.registerAll(newUser.getCars(), newUser);
 
-        if (newUser.getCars() != null) {
-            for (Car car : newUser.getCars()) {
-                car.setUser(newUser);
-                carService.register(car, null);
-            }
-        }
+        afterCommit(() -> tokenVersionService.update(newUser.getId(), newUser.getTokenVersion()));
         return userDTO;
     }
 
     /**
      * Updates the last login timestamp for a user.
+     * Nothing is written if the user has already signed in today; otherwise the date is written
+     * in the background by the {@link LastLoginWriter}, outside of the sign-in request.
      *
      * @param user The user whose last login timestamp will be updated.
      */
     public void updateLastLogin(User user) {
-        user.setLastLogin(LocalDate.now());
+        LocalDate today = LocalDate.now();
+        if (today.equals(user.getLastLogin()))
+            return;
+        user.setLastLogin(today);
+        lastLoginWriter.record(user.getId(), today);
+    }
+
+    /**
+     * Hashes the password of a user again if its hash is outdated, such as a hash with a lower BCrypt strength
+     * than the current one or without the algorithm prefix. Must only be called after the raw password was checked.
+     * If the password hashing pool is saturated the upgrade is skipped and retried on the next sign-in.
+     *
+     * @param user The user who has just signed in.
+     * @param rawPassword The raw password the user signed in with.
+     */
+    public void upgradePasswordEncoding(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword()))
+            return;
+        try {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+        } catch (BusinessException exception) {
+            return;
+        }
         userRepository.save(user);
     }
 
     /**
-     * Retrieves all users and returns them as a list of {@link UserDTO}.
+     * Retrieves a page of users ordered by ID, starting after the given cursor.
+     * The page size is limited to {@link #MAX_PAGE_SIZE}.
      *
-     * @return A list of all users as data transfer objects.
+     * @param after The ID of the last user of the previous page, or {@code null} for the first page.
+     * @param size The number of users requested.
+     * @return A page of users as data transfer objects, with the cursor of the next page if there is one.
      */
-    public List<UserDTO> findAll() {
-        List<User> users = userRepository.findAll();
-        List<UserDTO> userDTOs = new ArrayList<>();
-        for (User user : users) {
-            userDTOs.add(User.toDTO(user));
+    public CursorPageDTO<UserDTO> findAll(String after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        List<UserSummary> users = userRepository.findSummariesByIdGreaterThan(after == null ? "" : after,
+                PageRequest.of(0, pageSize + 1, Sort.by("id")));
+
+        List<UserDTO> userDTOs = new ArrayList<>(Math.min(users.size(), pageSize));
+        for (UserSummary user : users.subList(0, Math.min(users.size(), pageSize))) {
+            userDTOs.add(UserSummary.toDTO(user));
+        }
+        String nextCursor = users.size() > pageSize ? userDTOs.getLast().getId() : null;
+        return new CursorPageDTO<>(userDTOs, nextCursor);
+    }
+
+    /**
+     * Streams all users ordered by ID to the given consumer, reading them from a database cursor.
+     * Users are read as projections, which are not kept in the persistence context,
+     * so the memory used does not grow with the number of users.
+     *
+     * @param consumer The consumer receiving each user as a data transfer object.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserDTO> consumer) {
+        try (Stream<UserSummary> users = userRepository.streamAll()) {
+            users.forEach(user -> consumer.accept(UserSummary.toDTO(user)));
         }
-        return userDTOs;
     }
 
     /**
@@ -102,22 +165,23 @@ public class UserService {
      * @throws BadCredentialsException if the user with the specified ID is not found.
      */
     public UserDTO findById(String id) {
-        User user = userRepository.findById(id).orElseThrow(() -> new BadCredentialsException("Invalid Id"));
-        return User.toDTO(user);
+        UserSummary user = userRepository.findSummaryById(id).orElseThrow(() -> new BadCredentialsException("Invalid Id"));
+        return UserSummary.toDTO(user);
     }
 
     /**
-     * Retrieves the currently logged-in user based on the authentication token from the request.
+     * Retrieves the details of the currently logged-in user, including their cars.
+     * The user and the cars are loaded by a single query in a read-only transaction.
      *
-     * @param request The HTTP request containing the authentication token.
+     * @param user The logged-in user.
      * @return The user data transfer object of the logged-in user.
+     * @throws BadCredentialsException if the logged-in user no longer exists.
      */
-    public UserDTO findByMe(HttpServletRequest request) {
-        var token = tokenService.recoverToken(request);
-        var login = tokenService.verifyToken(token);
-        User user = findByLogin(login);
-        UserDTO userDTO = User.toDTO(user);
-        userDTO.setCars(user.getCars());
+    @Transactional(readOnly = true)
+    public UserDTO findByMe(User user) {
+        User me = userRepository.findByLoginWithCars(user.getLogin()).orElseThrow(() -> new BadCredentialsException("Invalid login"));
+        UserDTO userDTO = User.toDTO(me);
+        userDTO.setCars(me.getCars());
         return userDTO;
     }
 
@@ -134,11 +198,13 @@ public class UserService {
 
     /**
      * Updates a user's details based on the provided user ID and user data transfer object.
+     * The token version of the user is incremented, invalidating the tokens issued before the update.
      *
      * @param id The ID of the user to be updated.
      * @param userDTO The data transfer object containing the updated user details.
      * @return The updated user data transfer object.
      * @throws BadCredentialsException if the user with the specified ID is not found.
+     * @throws BusinessException if the new login or email already belongs to another user.
      */
     public UserDTO update(String id, UserDTO userDTO) {
         User user = userRepository.findById(id).orElseThrow(() -> new BadCredentialsException("Invalid Id"));
@@ -151,25 +217,63 @@ public class UserService {
             newUser.setCars(user.getCars());
         newUser.setCreatedAt(user.getCreatedAt());
         newUser.setLastLogin(user.getLastLogin());
+        newUser.setTokenVersion(user.getTokenVersion() + 1);
 
         newUser.validate();
-        userRepository.save(newUser);
+        saveUser(newUser);
+        tokenVersionService.update(newUser.getId(), newUser.getTokenVersion());
         return User.toDTO(user);
     }
 
     /**
-     * Deletes a user based on their ID. Also deletes any associated cars.
+     * Deletes a user based on their ID. Also deletes any associated cars with a single bulk statement,
+     * so the number of statements does not depend on the number of cars. The tokens of the user are revoked.
      *
      * @param id The ID of the user to be deleted.
      * @throws BadCredentialsException if the user with the specified ID is not found.
      */
+    @Transactional
     public void delete(String id) {
         User user = userRepository.findById(id).orElseThrow(() -> new BadCredentialsException("Invalid Id"));
-        if (user.getCars() != null) {
-            for (Car car : user.getCars()) {
-                carService.deleteByCar(car);
-            }
-        }
+        carService.deleteAllByUser(user.getId());
         userRepository.delete(user);
+        tokenVersionService.revoke(user.getId());
+    }
+
+    /**
+     * Saves the user, translating a violation of the login or email unique constraint into a {@link BusinessException}.
+     * The insert is flushed at once, so a violation is detected here even inside a transaction.
+     *
+     * @param user The user to be saved.
+     * @throws BusinessException if the login or email already exists.
+     */
+    private void saveUser(User user) {
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException exception) {
+            if (ConstraintViolations.isViolationOf(exception, User.LOGIN_UNIQUE_CONSTRAINT))
+                throw new BusinessException("Login already exists", HttpStatus.BAD_REQUEST);
+            if (ConstraintViolations.isViolationOf(exception, User.EMAIL_UNIQUE_CONSTRAINT))
+                throw new BusinessException("Email already exists", HttpStatus.BAD_REQUEST);
+            throw exception;
+        }
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or at once if there is no transaction.
+     *
+     * @param action The action to run.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,44 @@
+package com.pitang.desafiopitangapi.benchmarks;
+
+import com.pitang.desafiopitangapi.dto.UserDTO;
+import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping between the {@link User} entity and the {@link UserDTO}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private User user;
+    private UserDTO userDTO;
+
+    @Setup
+    public void setUp() {
+        user = new User("id", "Hello", "World", "hello@world.com", new Date(), "hello.world", "h3ll0",
+                "988888888", LocalDate.now(), LocalDate.now(), 0,
+                List.of(new Car("car", 2018, "PDV-0625", "Audi", "White", null, 0L)));
+        userDTO = User.toDTO(user);
+    }
+
+    @Benchmark
+    public UserDTO toDTO() {
+        return User.toDTO(user);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return UserDTO.toEntity(userDTO);
+    }
+}
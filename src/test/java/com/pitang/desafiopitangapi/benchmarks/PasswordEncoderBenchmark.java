@@ -0,0 +1,41 @@
+package com.pitang.desafiopitangapi.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of hashing and checking a password with BCrypt at the strengths the startup calibration
+ * may choose, to follow how the cost of a sign-in changes with the hardware.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"10", "11", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        hash = passwordEncoder.encode("h3ll0");
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("h3ll0");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("h3ll0", hash);
+    }
+}
@@ -0,0 +1,59 @@
+package com.pitang.desafiopitangapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.desafiopitangapi.infra.RestErrorMessage;
+import com.pitang.desafiopitangapi.infra.security.SecurityFilter;
+import com.pitang.desafiopitangapi.infra.security.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of requests rejected by {@link SecurityFilter} for a missing token,
+ * against the previous error response, which built a new {@link ObjectMapper} and pretty printer per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    private SecurityFilter securityFilter;
+
+    @Setup
+    public void setUp() {
+        securityFilter = new SecurityFilter();
+        ReflectionTestUtils.setField(securityFilter, "tokenService", new TokenService());
+        ReflectionTestUtils.setField(securityFilter, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(securityFilter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(securityFilter, "init");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse rejectedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cars");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        securityFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse rejectedRequestWithNewObjectMapper() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String json = new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValueAsString(new RestErrorMessage("Unauthorized", HttpStatus.UNAUTHORIZED));
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(json);
+        return response;
+    }
+}
@@ -0,0 +1,56 @@
+package com.pitang.desafiopitangapi.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pitang.desafiopitangapi.dto.ResponseDTO;
+import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of the sign-in response and of a page of cars.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int cars;
+
+    private ObjectMapper objectMapper;
+    private ResponseDTO response;
+    private List<Car> carList;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        User user = new User("id", "Hello", "World", "hello@world.com", new Date(), "hello.world", "h3ll0",
+                "988888888", LocalDate.now(), LocalDate.now(), 0, null);
+        response = new ResponseDTO(user, "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJoZWxsby53b3JsZCJ9.signature");
+
+        carList = new ArrayList<>(cars);
+        for (int i = 0; i < cars; i++) {
+            carList.add(new Car("car-" + i, 2018, String.format("PDV-%04d", i), "Audi", "White", user, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] signInResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] carList() throws Exception {
+        return objectMapper.writeValueAsBytes(carList);
+    }
+}
@@ -0,0 +1,57 @@
+package com.pitang.desafiopitangapi.benchmarks;
+
+import com.pitang.desafiopitangapi.infra.security.TokenClaims;
+import com.pitang.desafiopitangapi.infra.security.TokenService;
+import com.pitang.desafiopitangapi.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of a token, the verification of a token already in the verified token cache,
+ * and the verification of a token seen for the first time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private TokenService tokenService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secretKey", "benchmark-secret");
+        ReflectionTestUtils.setField(tokenService, "expireMinutes", 120L);
+        ReflectionTestUtils.setField(tokenService, "cacheMaxSize", 10_000);
+        ReflectionTestUtils.invokeMethod(tokenService, "init");
+
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setLogin("hello.world");
+        token = tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public TokenClaims verifyCachedToken() {
+        return tokenService.verifyToken(token);
+    }
+
+    @Benchmark
+    public TokenClaims verifyNewToken() {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        return tokenService.verifyToken(tokenService.generateToken(user));
+    }
+}
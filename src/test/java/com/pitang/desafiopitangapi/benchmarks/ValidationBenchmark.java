@@ -0,0 +1,57 @@
+package com.pitang.desafiopitangapi.benchmarks;
+
+import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link User#validate()} and {@link Car#validate()} against the previous implementation,
+ * which compiled the regular expressions with {@link String#matches(String)} and read the clock on every call.
+ * Run with the {@code gc} profiler (see the {@code jmh} profile) to compare the allocation per validation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private User user;
+    private Car car;
+
+    @Setup
+    public void setUp() {
+        user = new User(null, "Hello", "World", "hello@world.com", new Date(), "hello.world", "h3ll0",
+                "988888888", LocalDate.now(), null, 0, null);
+        car = new Car(null, 2018, "PDV-0625", "Audi", "White", null, null);
+    }
+
+    @Benchmark
+    public void userValidate() {
+        user.validate();
+    }
+
+    @Benchmark
+    public void carValidate() {
+        car.validate();
+    }
+
+    @Benchmark
+    public void userValidateWithRegexLiterals(Blackhole blackhole) {
+        blackhole.consume(user.getEmail().matches("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$"));
+        blackhole.consume(user.getPhone().matches("^(\\+\\d{1,2}\\s?)?\\(?\\d{2,3}\\)?\\s?-?\\d{4,5}-?\\d{4}$|^\\d{8,9}$"));
+    }
+
+    @Benchmark
+    public void carValidateWithRegexLiterals(Blackhole blackhole) {
+        blackhole.consume(car.getYear() > LocalDateTime.now().getYear());
+        blackhole.consume(car.getLicensePlate().matches("^[A-Z]{3}-\\d{4}$"));
+    }
+}
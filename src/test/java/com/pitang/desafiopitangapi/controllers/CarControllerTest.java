@@ -1,9 +1,11 @@
 package com.pitang.desafiopitangapi.controllers;
 
+import com.pitang.desafiopitangapi.dto.CarFilterDTO;
+import com.pitang.desafiopitangapi.dto.CarView;
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
 import com.pitang.desafiopitangapi.model.Car;
 import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.service.CarService;
-import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,7 +15,6 @@ import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mock.web.MockHttpServletRequest;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +33,8 @@ public class CarControllerTest {
     private CarService carService;
 
     private Car car;
+    private CarView carView;
+    private User user;
 
     @BeforeEach
     public void setup() {
@@ -41,16 +44,17 @@ public class CarControllerTest {
         car.setLicensePlate("ABC-1234");
         car.setModel("Model X");
         car.setColor("Blue");
-        car.setUser(new User());
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        car.setUser(user);
+        carView = new CarView(car.getId(), car.getYear(), car.getLicensePlate(), car.getModel(), car.getColor(), car.getVersion());
     }
 
     @Test
     @DisplayName("Car created")
     public void testRegister() {
-        HttpServletRequest request = new MockHttpServletRequest();
-
-        Mockito.when(carService.register(Mockito.any(), Mockito.any(HttpServletRequest.class))).thenReturn(car);
-        ResponseEntity<Car> response = carController.register(car, request);
+        Mockito.when(carService.register(Mockito.any(), Mockito.any(User.class))).thenReturn(car);
+        ResponseEntity<Car> response = carController.register(car, user);
 
         assertNotNull(response);
         assertNotNull(response.getBody());
@@ -59,44 +63,53 @@ public class CarControllerTest {
         assertEquals(Car.class, Objects.requireNonNull(response.getBody()).getClass());
     }
 
+    @Test
+    @DisplayName("Car batch created")
+    public void testRegisterAll() {
+        List<Car> cars = new ArrayList<>(List.of(car));
+        Mockito.when(carService.registerAll(cars, user)).thenReturn(cars);
+        ResponseEntity<List<Car>> response = carController.registerAll(cars, user);
+
+        assertNotNull(response);
+        assertNotNull(response.getBody());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+    }
+
     @Test
     @DisplayName("User's car list found")
     public void testFindAllByLoggedUser(){
-        HttpServletRequest request = new MockHttpServletRequest();
-
-        Mockito.when(carService.findAllByLoggedUser(request)).thenReturn(new ArrayList<>(List.of(car)));
-        ResponseEntity<List<Car>> response = carController.findAllByLoggedUser(request);
+        CarFilterDTO filter = new CarFilterDTO(null, null, null, null, null);
+        Mockito.when(carService.findAllByLoggedUser(user, filter, "id", "asc", null, 20))
+                .thenReturn(new CursorPageDTO<>(new ArrayList<>(List.of(carView)), null));
+        ResponseEntity<List<CarView>> response = carController.findAllByLoggedUser(user, filter, "id", "asc", null, 20);
 
         assertNotNull(response);
         assertNotNull(response.getBody());
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(ResponseEntity.class, response.getClass());
         assertEquals(ArrayList.class, response.getBody().getClass());
-        assertEquals(Car.class, response.getBody().getFirst().getClass());
+        assertEquals(CarView.class, response.getBody().getFirst().getClass());
     }
 
     @Test
     @DisplayName("Car found")
     public void testFindById() {
-        HttpServletRequest request = new MockHttpServletRequest();
-
-        Mockito.when(carService.findByIdAndLoggedUser(car.getId(), request)).thenReturn(car);
-        ResponseEntity<Car> response = carController.findById(car.getId(), request);
+        Mockito.when(carService.findViewByIdAndLoggedUser(car.getId(), user)).thenReturn(carView);
+        ResponseEntity<CarView> response = carController.findById(car.getId(), user);
 
         assertNotNull(response);
         assertNotNull(response.getBody());
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(ResponseEntity.class, response.getClass());
-        assertEquals(Car.class, response.getBody().getClass());
+        assertEquals(CarView.class, response.getBody().getClass());
     }
 
     @Test
     @DisplayName("Car updated")
     public void testUpdate() {
-        HttpServletRequest request = new MockHttpServletRequest();
-
-        Mockito.when(carService.update(Mockito.eq(car.getId()), Mockito.any(Car.class), Mockito.eq(request))).thenReturn(car);
-        ResponseEntity<Car> response = carController.update(car.getId(), car, request);
+        Mockito.when(carService.update(Mockito.eq(car.getId()), Mockito.any(Car.class), Mockito.eq(user))).thenReturn(car);
+        ResponseEntity<Car> response = carController.update(car.getId(), car, user);
 
         assertNotNull(response);
         assertNotNull(response.getBody());
@@ -108,10 +121,8 @@ public class CarControllerTest {
     @Test
     @DisplayName("Car deleted")
     public void testDelete() {
-        HttpServletRequest request = new MockHttpServletRequest();
-
-        Mockito.doNothing().when(carService).delete(car.getId(), request);
-        ResponseEntity<Void> response = carController.delete(car.getId(), request);
+        Mockito.doNothing().when(carService).delete(car.getId(), user);
+        ResponseEntity<Void> response = carController.delete(car.getId(), user);
 
         assertNotNull(response);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
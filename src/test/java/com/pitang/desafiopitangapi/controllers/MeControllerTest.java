@@ -1,26 +1,40 @@
 package com.pitang.desafiopitangapi.controllers;
 
 import com.pitang.desafiopitangapi.dto.UserDTO;
+import com.pitang.desafiopitangapi.infra.security.TokenService;
+import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
+import com.pitang.desafiopitangapi.repository.CarRepository;
+import com.pitang.desafiopitangapi.repository.UserRepository;
 import com.pitang.desafiopitangapi.service.UserService;
-import jakarta.servlet.http.HttpServletRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
 public class MeControllerTest {
 
     @InjectMocks
@@ -29,6 +43,21 @@ public class MeControllerTest {
     @Mock
     private UserService userService;
 
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private UserDTO userDTO;
 
     @BeforeEach
@@ -47,9 +76,9 @@ public class MeControllerTest {
     @Test
     @DisplayName("My user found")
     public void testFindByMe() {
-        HttpServletRequest request = new MockHttpServletRequest();
-        Mockito.when(userService.findByMe(request)).thenReturn(userDTO);
-        ResponseEntity<UserDTO> response = meController.findByMe(request);
+        User user = UserDTO.toEntity(userDTO);
+        Mockito.when(userService.findByMe(user)).thenReturn(userDTO);
+        ResponseEntity<UserDTO> response = meController.findByMe(user);
 
         assertNotNull(response);
         assertNotNull(response.getBody());
@@ -57,4 +86,36 @@ public class MeControllerTest {
         assertEquals(ResponseEntity.class, response.getClass());
         assertEquals(UserDTO.class, response.getBody().getClass());
     }
+
+    @Test
+    @DisplayName("My user found with a single SQL statement")
+    public void testFindByMeStatementCount() throws Exception {
+        User user = UserDTO.toEntity(userDTO);
+        user.setId(null);
+        user.setLogin("me-" + UUID.randomUUID());
+        user.setEmail(user.getLogin() + "@test.com");
+        user.setCreatedAt(LocalDate.now());
+        userRepository.save(user);
+
+        Car car = new Car();
+        car.setYear(2022);
+        car.setLicensePlate("MEE-1234");
+        car.setModel("Model X");
+        car.setColor("Blue");
+        car.setUser(user);
+        carRepository.save(car);
+
+        String token = tokenService.generateToken(user);
+        mockMvc.perform(get("/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.login").value(user.getLogin()))
+                .andExpect(jsonPath("$.cars[0].licensePlate").value("MEE-1234"));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
 }
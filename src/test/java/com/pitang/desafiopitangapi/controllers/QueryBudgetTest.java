@@ -0,0 +1,171 @@
+package com.pitang.desafiopitangapi.controllers;
+
+import com.pitang.desafiopitangapi.infra.persistence.QueryStatsFilter;
+import com.pitang.desafiopitangapi.infra.security.TokenService;
+import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
+import com.pitang.desafiopitangapi.repository.CarRepository;
+import com.pitang.desafiopitangapi.repository.UserRepository;
+import com.pitang.desafiopitangapi.service.TokenVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Pins the maximum number of SQL statements of each endpoint, counted by the {@link QueryStatsFilter},
+ * so a change adding queries to a request fails here.
+ */
+@SpringBootTest(properties = "api.query-stats.enabled=true")
+@AutoConfigureMockMvc
+public class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    private User user;
+    private Car car;
+    private String token;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User();
+        user.setFirstName("Query");
+        user.setLastName("Budget");
+        user.setLogin("budget-" + UUID.randomUUID());
+        user.setEmail(user.getLogin() + "@test.com");
+        user.setBirthday(new Date());
+        user.setPassword("password123");
+        user.setPhone("988888888");
+        user.setCreatedAt(LocalDate.now());
+        userRepository.save(user);
+        tokenVersionService.update(user.getId(), user.getTokenVersion());
+
+        car = new Car(null, 2020, licensePlate(), "Model X", "Blue", user, null);
+        carRepository.save(car);
+
+        token = tokenService.generateToken(user);
+    }
+
+    @Test
+    @DisplayName("GET /me - 1 statement")
+    public void testFindByMe() throws Exception {
+        assertBudget(get("/me"), 1);
+    }
+
+    @Test
+    @DisplayName("GET /cars - 1 statement")
+    public void testFindAllCars() throws Exception {
+        assertBudget(get("/cars").param("sort", "year"), 1);
+    }
+
+    @Test
+    @DisplayName("GET /cars/{id} - 1 statement")
+    public void testFindCarById() throws Exception {
+        assertBudget(get("/cars/{id}", car.getId()), 1);
+    }
+
+    @Test
+    @DisplayName("POST /cars - 1 statement")
+    public void testRegisterCar() throws Exception {
+        assertBudget(post("/cars").contentType(MediaType.APPLICATION_JSON).content(carJson(licensePlate())), 1);
+    }
+
+    @Test
+    @DisplayName("POST /cars/batch - 2 statements")
+    public void testRegisterCars() throws Exception {
+        String cars = "[" + carJson(licensePlate()) + "," + carJson(licensePlate()) + "," + carJson(licensePlate()) + "]";
+        assertBudget(post("/cars/batch").contentType(MediaType.APPLICATION_JSON).content(cars), 2);
+    }
+
+    @Test
+    @DisplayName("PUT /cars/{id} - 2 statements")
+    public void testUpdateCar() throws Exception {
+        assertBudget(put("/cars/{id}", car.getId()).contentType(MediaType.APPLICATION_JSON).content(carJson(licensePlate())), 2);
+    }
+
+    @Test
+    @DisplayName("DELETE /cars/{id} - 2 statements")
+    public void testDeleteCar() throws Exception {
+        assertBudget(delete("/cars/{id}", car.getId()), 2);
+    }
+
+    @Test
+    @DisplayName("GET /users - 1 statement")
+    public void testFindAllUsers() throws Exception {
+        assertBudget(get("/users").param("size", "20"), 1);
+    }
+
+    @Test
+    @DisplayName("GET /users?stream - Not buffered nor counted")
+    public void testStreamAllUsers() throws Exception {
+        MvcResult result = mockMvc.perform(get("/users").param("stream", "").accept(MediaType.APPLICATION_NDJSON)).andReturn();
+
+        assertNull(result.getResponse().getHeader(QueryStatsFilter.STATEMENTS_HEADER));
+    }
+
+    @Test
+    @DisplayName("GET /cars?stream - 1 statement, stream parameter ignored")
+    public void testFindAllCarsWithStreamParameter() throws Exception {
+        assertBudget(get("/cars").param("stream", ""), 1);
+    }
+
+    @Test
+    @DisplayName("DELETE /users/{id} - 3 statements")
+    public void testDeleteUser() throws Exception {
+        assertBudget(delete("/users/{id}", user.getId()), 3);
+    }
+
+    /**
+     * Performs the request authenticated as the test user and checks its statement count.
+     *
+     * @param request the request
+     * @param budget the maximum number of statements
+     */
+    private void assertBudget(MockHttpServletRequestBuilder request, int budget) throws Exception {
+        RequestBuilder authenticated = request.header("Authorization", "Bearer " + token);
+        MvcResult result = mockMvc.perform(authenticated).andReturn();
+
+        assertTrue(result.getResponse().getStatus() < 400, "status " + result.getResponse().getStatus());
+        int statements = Integer.parseInt(result.getResponse().getHeader(QueryStatsFilter.STATEMENTS_HEADER));
+        assertTrue(statements <= budget, statements + " statements, budget " + budget);
+    }
+
+    private static String carJson(String licensePlate) {
+        return "{\"year\":2021,\"licensePlate\":\"" + licensePlate + "\",\"model\":\"Model Y\",\"color\":\"Red\"}";
+    }
+
+    private static String licensePlate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "" + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26)) + (char) ('A' + random.nextInt(26))
+                + "-" + String.format("%04d", random.nextInt(10_000));
+    }
+}
@@ -3,6 +3,8 @@ package com.pitang.desafiopitangapi.controllers;
 import com.pitang.desafiopitangapi.dto.LoginRequestDTO;
 import com.pitang.desafiopitangapi.dto.ResponseDTO;
 import com.pitang.desafiopitangapi.dto.UserDTO;
+import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import com.pitang.desafiopitangapi.infra.ratelimit.SignInRateLimiter;
 import com.pitang.desafiopitangapi.infra.security.TokenService;
 import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.repository.UserRepository;
@@ -45,6 +47,9 @@ public class SignInControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private SignInRateLimiter signInRateLimiter;
+
     private User user;
     private LoginRequestDTO loginRequestDTO;
 
@@ -80,6 +85,8 @@ public class SignInControllerTest {
         assertNotNull(responseDTO);
         assertEquals("mockedToken", responseDTO.token());
         assertEquals(user, responseDTO.user());
+        Mockito.verify(userService).upgradePasswordEncoding(user, loginRequestDTO.password());
+        Mockito.verify(signInRateLimiter).releaseLogin(loginRequestDTO.login());
 
     }
 
@@ -93,5 +100,31 @@ public class SignInControllerTest {
         });
 
         assertEquals("Invalid login or password", exception.getMessage());
+        Mockito.verify(signInRateLimiter).acquireLogin(loginRequestDTO.login());
+        Mockito.verify(signInRateLimiter, Mockito.never()).releaseLogin(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Failed sign-in due to a wrong password")
+    public void testSignInFailureWrongPassword() {
+        Mockito.when(userRepository.findByLogin(loginRequestDTO.login())).thenReturn(Optional.of(user));
+        Mockito.when(passwordEncoder.matches(loginRequestDTO.password(), user.getPassword())).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> signInController.signIn(loginRequestDTO));
+
+        Mockito.verify(signInRateLimiter, Mockito.never()).releaseLogin(Mockito.any());
+        Mockito.verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    @DisplayName("Failed sign-in due to too many attempts")
+    public void testSignInFailureTooManyAttempts() {
+        Mockito.doThrow(new BusinessException(SignInRateLimiter.TOO_MANY_ATTEMPTS, HttpStatus.TOO_MANY_REQUESTS))
+                .when(signInRateLimiter).acquireLogin(loginRequestDTO.login());
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> signInController.signIn(loginRequestDTO));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus());
+        Mockito.verifyNoInteractions(userRepository, passwordEncoder);
     }
 }
@@ -1,5 +1,7 @@
 package com.pitang.desafiopitangapi.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
 import com.pitang.desafiopitangapi.dto.UserDTO;
 import com.pitang.desafiopitangapi.model.Car;
 import com.pitang.desafiopitangapi.service.UserService;
@@ -11,9 +13,13 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -69,8 +75,8 @@ public class UserControllerTest {
     @Test
     @DisplayName("Listed all users")
     public void testFindAll(){
-        Mockito.when(userService.findAll()).thenReturn(new ArrayList<>(List.of(userDTO)));
-        ResponseEntity<List<UserDTO>> response = userController.findAll();
+        Mockito.when(userService.findAll(null, 20)).thenReturn(new CursorPageDTO<>(new ArrayList<>(List.of(userDTO)), null));
+        ResponseEntity<List<UserDTO>> response = userController.findAll(null, 20);
 
         assertNotNull(response);
         assertNotNull(response.getBody());
@@ -78,6 +84,38 @@ public class UserControllerTest {
         assertEquals(ResponseEntity.class, response.getClass());
         assertEquals(ArrayList.class, response.getBody().getClass());
         assertEquals(UserDTO.class, response.getBody().getFirst().getClass());
+        assertFalse(response.getHeaders().containsKey(CursorPageDTO.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Listed a page of users with a next cursor")
+    public void testFindAllWithNextPage(){
+        Mockito.when(userService.findAll(null, 1)).thenReturn(new CursorPageDTO<>(new ArrayList<>(List.of(userDTO)), userDTO.getId()));
+        ResponseEntity<List<UserDTO>> response = userController.findAll(null, 1);
+
+        assertNotNull(response.getBody());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals(userDTO.getId(), response.getHeaders().getFirst(CursorPageDTO.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("Streamed all users with its own timeout")
+    public void testStreamAll() throws Exception {
+        UserController controller = new UserController(userService, new ObjectMapper());
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<UserDTO>>getArgument(0).accept(userDTO);
+            return null;
+        }).when(userService).streamAll(Mockito.any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        WebAsyncTask<Void> task = controller.streamAll(response);
+        task.getCallable().call();
+
+        assertEquals(UserController.STREAM_TIMEOUT_MILLIS, task.getTimeout());
+        assertEquals(MediaType.APPLICATION_NDJSON_VALUE, response.getContentType());
+        assertTrue(response.getContentAsString().contains("\"id\":\"" + userDTO.getId() + "\""));
+        assertTrue(response.getContentAsString().endsWith("\n"));
     }
 
     @Test
@@ -0,0 +1,27 @@
+package com.pitang.desafiopitangapi.infra.persistence;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Builds the constraint violations thrown by the repositories, for the tests of the services that translate them
+ * with {@link ConstraintViolations}.
+ */
+public final class ConstraintViolationsTestSupport {
+
+    private ConstraintViolationsTestSupport() {
+    }
+
+    /**
+     * Builds the exception thrown by the repository when the given unique constraint is violated.
+     *
+     * @param constraintName the constraint name reported by Hibernate
+     * @return the translated exception
+     */
+    public static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        String message = "Unique index or primary key violation";
+        return new DataIntegrityViolationException(message, new ConstraintViolationException(message, new SQLException(message), constraintName));
+    }
+}
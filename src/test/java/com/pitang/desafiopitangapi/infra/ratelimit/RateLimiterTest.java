@@ -0,0 +1,52 @@
+package com.pitang.desafiopitangapi.infra.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final RateLimiter rateLimiter = new RateLimiter(2, 1, 100);
+
+    @Test
+    @DisplayName("Burst limited by the capacity, per key")
+    void testBurst() {
+        long now = System.nanoTime();
+
+        assertTrue(rateLimiter.tryAcquire("127.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("127.0.0.1", now));
+        assertFalse(rateLimiter.tryAcquire("127.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("10.0.0.1", now));
+    }
+
+    @Test
+    @DisplayName("Bucket refilled over time")
+    void testRefill() {
+        long now = System.nanoTime();
+        rateLimiter.tryAcquire("127.0.0.1", now);
+        rateLimiter.tryAcquire("127.0.0.1", now);
+
+        assertFalse(rateLimiter.tryAcquire("127.0.0.1", now + TimeUnit.SECONDS.toNanos(30)));
+        assertTrue(rateLimiter.tryAcquire("127.0.0.1", now + TimeUnit.SECONDS.toNanos(61)));
+        assertFalse(rateLimiter.tryAcquire("127.0.0.1", now + TimeUnit.SECONDS.toNanos(62)));
+    }
+
+    @Test
+    @DisplayName("Released token given back, up to the capacity")
+    void testRelease() {
+        long now = System.nanoTime();
+        rateLimiter.tryAcquire("127.0.0.1", now);
+        rateLimiter.tryAcquire("127.0.0.1", now);
+
+        rateLimiter.release("127.0.0.1", now);
+        rateLimiter.release("127.0.0.1", now);
+        rateLimiter.release("127.0.0.1", now);
+
+        assertTrue(rateLimiter.tryAcquire("127.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("127.0.0.1", now));
+        assertFalse(rateLimiter.tryAcquire("127.0.0.1", now));
+    }
+}
@@ -0,0 +1,68 @@
+package com.pitang.desafiopitangapi.infra.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignInRateLimitFilterTest {
+
+    private final SignInRateLimitFilter signInRateLimitFilter = new SignInRateLimitFilter();
+
+    @BeforeEach
+    void setUp() {
+        signInRateLimitFilter.signInRateLimiter = new SignInRateLimiter(1, 1, 1, 1, 100, new SimpleMeterRegistry());
+        signInRateLimitFilter.objectMapper = new ObjectMapper();
+    }
+
+    @Test
+    @DisplayName("Sign-ins over the IP limit - Rejected before the controller")
+    void testSignIn_IpLimited() throws Exception {
+        signInRateLimitFilter.doFilter(request("POST", "/signin", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        signInRateLimitFilter.doFilter(request("POST", "/signin", "10.0.0.1"), response, chain);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertTrue(response.getContentAsString().contains(SignInRateLimiter.TOO_MANY_ATTEMPTS));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Sign-in from another IP - Passed on")
+    void testSignIn_OtherIp() throws Exception {
+        signInRateLimitFilter.doFilter(request("POST", "/signin", "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+        MockFilterChain chain = new MockFilterChain();
+
+        signInRateLimitFilter.doFilter(request("POST", "/signin", "10.0.0.2"), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Other routes - Not limited")
+    void testOtherRoute() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockFilterChain chain = new MockFilterChain();
+
+            signInRateLimitFilter.doFilter(request("POST", "/users", "10.0.0.1"), new MockHttpServletResponse(), chain);
+
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 0, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Hashing runs on the pool")
+    void testEncodeAndMatches() {
+        when(delegate.encode("password")).thenReturn("hash");
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        assertEquals("hash", passwordEncoder.encode("password"));
+        assertTrue(passwordEncoder.matches("password", "hash"));
+        assertEquals(1, meterRegistry.get("password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("Sequential calls - Never rejected, even without a queue")
+    void testSequentialCalls() {
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        for (int i = 0; i < 1000; i++)
+            assertTrue(passwordEncoder.matches("password", "hash"));
+
+        assertEquals(0, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Saturated pool - Service Unavailable")
+    void testSaturatedPool() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("password", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> passwordEncoder.matches("password", "hash"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,168 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.desafiopitangapi.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.pitang.desafiopitangapi.service.TokenVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SecurityFilterTest {
+
+    @InjectMocks
+    private SecurityFilter securityFilter;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        securityFilter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Public route - Token not touched")
+    void testPublicRoute() throws Exception {
+        MockHttpServletRequest request = request("POST", "/signin");
+        MockFilterChain chain = new MockFilterChain();
+
+        securityFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+        verifyNoInteractions(tokenService, tokenVersionService);
+    }
+
+    @Test
+    @DisplayName("Public path with another method - Token required")
+    void testPublicPathWithOtherMethod() throws Exception {
+        MockHttpServletRequest request = request("GET", "/signin");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        securityFilter.doFilter(request, response, chain);
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+        assertNull(chain.getRequest());
+        verify(tokenService).recoverToken(request);
+    }
+
+    @Test
+    @DisplayName("Prometheus on the API port - Token required")
+    void testPrometheusOnApiPort() throws Exception {
+        MockHttpServletRequest request = request("GET", "/actuator/prometheus");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        securityFilter.doFilter(request, response, chain);
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Management server request - Token not touched")
+    void testManagementServerRequest() throws Exception {
+        MockHttpServletRequest request = request("GET", "/actuator/prometheus");
+        WebApplicationContext managementContext = mock(WebApplicationContext.class,
+                withSettings().extraInterfaces(WebServerApplicationContext.class));
+        when(((WebServerApplicationContext) managementContext).getServerNamespace()).thenReturn("management");
+        request.getServletContext().setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, managementContext);
+        MockFilterChain chain = new MockFilterChain();
+
+        securityFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+        verifyNoInteractions(tokenService, tokenVersionService);
+    }
+
+    @Test
+    @DisplayName("Protected route without token - Unauthorized")
+    void testMissingToken() throws Exception {
+        MockHttpServletRequest request = request("GET", "/cars");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        securityFilter.doFilter(request, response, chain);
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+        assertEquals("{\"message\":\"Unauthorized\",\"status\":\"UNAUTHORIZED\"}", response.getContentAsString());
+        assertNull(chain.getRequest());
+        verifyNoInteractions(tokenVersionService);
+    }
+
+    @Test
+    @DisplayName("Current token - Principal built from the claims")
+    void testCurrentToken() throws Exception {
+        MockHttpServletRequest request = request("GET", "/cars");
+        MockFilterChain chain = new MockFilterChain();
+        when(tokenService.recoverToken(request)).thenReturn("token");
+        when(tokenService.verifyToken("token")).thenReturn(new TokenClaims("id", "test", 1));
+        when(tokenVersionService.isCurrent("id", 1)).thenReturn(true);
+
+        securityFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        User principal = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals("id", principal.getId());
+        assertEquals("test", principal.getLogin());
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Outdated token - Unauthorized")
+    void testOutdatedToken() throws Exception {
+        MockHttpServletRequest request = request("GET", "/cars");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        when(tokenService.recoverToken(request)).thenReturn("token");
+        when(tokenService.verifyToken("token")).thenReturn(new TokenClaims("id", "test", 1));
+        when(tokenVersionService.isCurrent("id", 1)).thenReturn(false);
+
+        securityFilter.doFilter(request, response, chain);
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals(1, meterRegistry.get("security.filter.rejected").tag("reason", "revoked_token").counter().count());
+    }
+
+    /**
+     * Builds a request to the given path. The route matchers read the servlet path, as set by the servlet container.
+     *
+     * @param method the HTTP method
+     * @param path the path of the request, relative to the context path
+     * @return the request
+     */
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
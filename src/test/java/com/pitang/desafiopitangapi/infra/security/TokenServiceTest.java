@@ -0,0 +1,121 @@
+package com.pitang.desafiopitangapi.infra.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.pitang.desafiopitangapi.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "secret-key-pitang-test";
+
+    private TokenService tokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = tokenService(10);
+
+        user = new User();
+        user.setId("id");
+        user.setLogin("test");
+        user.setTokenVersion(1);
+    }
+
+    @Test
+    @DisplayName("Valid token - Claims cached and served without verifying again")
+    void testCachedToken() {
+        String token = tokenService.generateToken(user);
+
+        TokenClaims claims = tokenService.verifyToken(token);
+        assertEquals(new TokenClaims("id", "test", 1), claims);
+        assertEquals(1, tokenService.cachedTokens());
+
+        ReflectionTestUtils.setField(tokenService, "verifier", JWT.require(Algorithm.HMAC256("other-secret")).build());
+
+        assertEquals(claims, tokenService.verifyToken(token));
+        assertEquals(1, tokenService.cachedTokens());
+    }
+
+    @Test
+    @DisplayName("Expired token - Cache entry removed and token rejected")
+    void testExpiredToken() throws Exception {
+        Instant expiresAt = Instant.now().plusSeconds(2);
+        String token = token(SECRET, expiresAt);
+
+        assertNotNull(tokenService.verifyToken(token));
+        assertEquals(1, tokenService.cachedTokens());
+
+        Thread.sleep(Duration.between(Instant.now(), expiresAt).toMillis() + 200);
+
+        assertNull(tokenService.verifyToken(token));
+        assertEquals(0, tokenService.cachedTokens());
+    }
+
+    @Test
+    @DisplayName("Tampered, invalid and blank tokens - Rejected and not cached")
+    void testInvalidTokens() {
+        String token = tokenService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(tokenService.verifyToken(tampered));
+        assertNull(tokenService.verifyToken(token("other-secret", Instant.now().plusSeconds(60))));
+        assertNull(tokenService.verifyToken("not-a-token"));
+        assertNull(tokenService.verifyToken(""));
+        assertNull(tokenService.verifyToken(null));
+        assertEquals(0, tokenService.cachedTokens());
+    }
+
+    @Test
+    @DisplayName("Full cache - Valid tokens verified but not cached")
+    void testCacheSizeLimit() {
+        tokenService = tokenService(2);
+
+        for (int i = 0; i < 3; i++) {
+            user.setId("id-" + i);
+            assertNotNull(tokenService.verifyToken(tokenService.generateToken(user)));
+        }
+
+        assertEquals(2, tokenService.cachedTokens());
+    }
+
+    /**
+     * Builds an initialized token service with the test secret.
+     *
+     * @param cacheMaxSize the maximum number of cached tokens
+     * @return the token service
+     */
+    private static TokenService tokenService(int cacheMaxSize) {
+        TokenService tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(tokenService, "expireMinutes", 120L);
+        ReflectionTestUtils.setField(tokenService, "cacheMaxSize", cacheMaxSize);
+        tokenService.init();
+        return tokenService;
+    }
+
+    /**
+     * Signs a token with the claims issued by the token service and the given expiration.
+     *
+     * @param secret the secret used to sign the token
+     * @param expiresAt the expiration of the token
+     * @return the signed token
+     */
+    private static String token(String secret, Instant expiresAt) {
+        return JWT.create()
+                .withIssuer("desafio-pitang-api")
+                .withSubject("test")
+                .withClaim("uid", "id")
+                .withClaim("ver", 1)
+                .withExpiresAt(expiresAt)
+                .sign(Algorithm.HMAC256(secret));
+    }
+}
@@ -0,0 +1,43 @@
+package com.pitang.desafiopitangapi.infra.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorsTest {
+
+    @Test
+    @DisplayName("License plate scanner accepts only XXX-1234")
+    void testIsLicensePlate() {
+        assertTrue(Validators.isLicensePlate("ABC-1234"));
+        assertTrue(Validators.isLicensePlate("ZZZ-0000"));
+
+        assertFalse(Validators.isLicensePlate("abc-1234"));
+        assertFalse(Validators.isLicensePlate("AB1-1234"));
+        assertFalse(Validators.isLicensePlate("ABC1234"));
+        assertFalse(Validators.isLicensePlate("ABC-123"));
+        assertFalse(Validators.isLicensePlate("ABC-12345"));
+        assertFalse(Validators.isLicensePlate("ABC_1234"));
+        assertFalse(Validators.isLicensePlate("ABC-12A4"));
+        assertFalse(Validators.isLicensePlate(""));
+    }
+
+    @Test
+    @DisplayName("Email and phone patterns")
+    void testIsEmailAndPhone() {
+        assertTrue(Validators.isEmail("hello@world.com"));
+        assertFalse(Validators.isEmail("hello@world"));
+        assertTrue(Validators.isPhone("988888888"));
+        assertTrue(Validators.isPhone("+55 (81) 98888-8888"));
+        assertFalse(Validators.isPhone("98888"));
+    }
+
+    @Test
+    @DisplayName("Current year is cached")
+    void testCurrentYear() {
+        assertEquals(LocalDate.now().getYear(), Validators.currentYear());
+    }
+}
@@ -0,0 +1,105 @@
+package com.pitang.desafiopitangapi.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fills the database of a running application with generated users and cars for the load test.
+ * Rows are inserted with JDBC batches, and every user shares the same password hash,
+ * so seeding a large dataset takes seconds instead of one BCrypt hash per user.
+ * User {@code i} has the login {@code loadtest-i} and the password {@link #PASSWORD}.
+ */
+public class DataSeeder {
+
+    public static final String PASSWORD = "loadtest";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    public DataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Gets the login of a generated user.
+     *
+     * @param index the index of the user
+     * @return the login of the user
+     */
+    public static String login(int index) {
+        return "loadtest-" + index;
+    }
+
+    /**
+     * Inserts the users and their cars.
+     *
+     * @param users the number of users
+     * @param carsPerUser the number of cars of each user
+     */
+    public void seed(int users, int carsPerUser) {
+        String password = passwordEncoder.encode(PASSWORD);
+        Date birthday = Date.valueOf(LocalDate.of(1990, 1, 1));
+        LocalDate today = LocalDate.now();
+
+        List<Object[]> userRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> carRows = new ArrayList<>(BATCH_SIZE);
+        int car = 0;
+        for (int i = 0; i < users; i++) {
+            String id = UUID.randomUUID().toString();
+            userRows.add(new Object[]{id, "Load", "Test " + i, login(i) + "@test.com", birthday, login(i), password,
+                    "988888888", today, 0});
+            for (int j = 0; j < carsPerUser; j++, car++) {
+                carRows.add(new Object[]{UUID.randomUUID().toString(), 2000 + car % 25, licensePlate(car),
+                        "Model " + car % 50, "Color " + car % 10, id});
+            }
+            if (userRows.size() >= BATCH_SIZE)
+                flush(userRows, carRows);
+        }
+        flush(userRows, carRows);
+    }
+
+    /**
+     * Inserts the pending rows, the users first since the cars reference them.
+     *
+     * @param userRows the pending user rows
+     * @param carRows the pending car rows
+     */
+    private void flush(List<Object[]> userRows, List<Object[]> carRows) {
+        jdbcTemplate.batchUpdate("INSERT INTO USERS (USER_ID, FIRST_NAME, LAST_NAME, EMAIL, BIRTHDAY, LOGIN, PASSWORD, " +
+                "PHONE, CREATED_AT, TOKEN_VERSION) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", userRows);
+        for (int from = 0; from < carRows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("INSERT INTO CARS (CAR_ID, CAR_YEAR, LICENSE_PLATE, MODEL, COLOR, USER_ID, CAR_VERSION) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, 0)", carRows.subList(from, Math.min(from + BATCH_SIZE, carRows.size())));
+        }
+        userRows.clear();
+        carRows.clear();
+    }
+
+    /**
+     * Builds a unique license plate in the format "XXX-1234" from a sequence number.
+     *
+     * @param sequence the sequence number of the car
+     * @return the license plate
+     */
+    private static String licensePlate(int sequence) {
+        int letters = sequence / 10_000;
+        char[] plate = new char[8];
+        plate[0] = (char) ('A' + letters / 676 % 26);
+        plate[1] = (char) ('A' + letters / 26 % 26);
+        plate[2] = (char) ('A' + letters % 26);
+        plate[3] = '-';
+        int digits = sequence % 10_000;
+        for (int i = 7; i >= 4; i--, digits /= 10) {
+            plate[i] = (char) ('0' + digits % 10);
+        }
+        return new String(plate);
+    }
+}
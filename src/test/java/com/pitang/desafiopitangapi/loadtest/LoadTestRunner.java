@@ -0,0 +1,224 @@
+package com.pitang.desafiopitangapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pitang.desafiopitangapi.DesafioPitangApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Self-contained load test of the API. Starts the application on a random port with its in-memory H2 database,
+ * seeds it with {@link DataSeeder}, then drives each endpoint in turn with a fixed number of concurrent clients
+ * and prints the throughput and latency percentiles of each one.
+ * The sign-in rate limits are lifted and the password hashing pool is sized for the load, so {@code POST /signin}
+ * measures BCrypt rather than rejections; any 503 still returned is reported apart from the other errors.
+ * Run with {@code ./mvnw -P loadtest -DskipTests verify}; the dataset and the load are set by the
+ * {@code loadtest.*} system properties, see the {@code loadtest} profile of the pom.
+ */
+public class LoadTestRunner {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 1000);
+    private static final int CARS_PER_USER = Integer.getInteger("loadtest.cars-per-user", 5);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 30));
+    private static final int SIGNED_IN_USERS = Math.min(USERS, 20);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final List<String> tokens = new ArrayList<>();
+
+    private LoadTestRunner(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(DesafioPitangApiApplication.class,
+                "--server.port=0",
+                "--management.server.port=0",
+                "--logging.level.root=WARN",
+                "--api.security.signin.rate-limit.ip.capacity=" + Long.MAX_VALUE / 2,
+                "--api.security.signin.rate-limit.ip.refill-per-minute=" + Long.MAX_VALUE / 2,
+                "--api.security.signin.rate-limit.login.capacity=" + Long.MAX_VALUE / 2,
+                "--api.security.signin.rate-limit.login.refill-per-minute=" + Long.MAX_VALUE / 2,
+                "--api.security.password.pool-size=" + Runtime.getRuntime().availableProcessors(),
+                "--api.security.password.queue-capacity=" + CONCURRENCY);
+        try {
+            long start = System.nanoTime();
+            new DataSeeder(context.getBean(JdbcTemplate.class), context.getBean(PasswordEncoder.class)).seed(USERS, CARS_PER_USER);
+            System.out.printf("Seeded %d users and %d cars in %d ms%n", USERS, USERS * CARS_PER_USER,
+                    (System.nanoTime() - start) / 1_000_000);
+
+            String port = context.getEnvironment().getProperty("local.server.port");
+            new LoadTestRunner("http://localhost:" + port + "/api").run();
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    /**
+     * Signs in a sample of the users, then runs the scenario of each endpoint and prints the report.
+     */
+    private void run() throws Exception {
+        for (int i = 0; i < SIGNED_IN_USERS; i++) {
+            HttpResponse<String> response = client.send(signIn(i), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200)
+                throw new IllegalStateException("Sign-in of " + DataSeeder.login(i) + " failed with status "
+                        + response.statusCode() + ": " + response.body());
+            tokens.add(objectMapper.readTree(response.body()).get("token").asText());
+        }
+
+        Map<String, Function<ThreadLocalRandom, HttpRequest>> scenarios = new LinkedHashMap<>();
+        scenarios.put("POST /signin", random -> signIn(random.nextInt(USERS)));
+        scenarios.put("GET /users", random -> get("/users?size=20", null));
+        scenarios.put("GET /cars", random -> get("/cars?size=20", token(random)));
+        scenarios.put("GET /cars?sort=year", random -> get("/cars?sort=year&direction=desc&size=20", token(random)));
+        scenarios.put("GET /me", random -> get("/me", token(random)));
+
+        System.out.printf("%-24s %10s %8s %8s %8s %8s %8s %8s %8s%n", "endpoint", "req/s", "errors", "503", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Function<ThreadLocalRandom, HttpRequest>> scenario : scenarios.entrySet()) {
+            drive(scenario.getValue(), WARMUP);
+            Result result = drive(scenario.getValue(), DURATION);
+            System.out.printf("%-24s %10.1f %8d %8d %8.2f %8.2f %8.2f %8.2f %8.2f%n", scenario.getKey(),
+                    result.count() / (DURATION.toNanos() / 1e9), result.errors(), result.rejected(),
+                    result.percentile(0.5), result.percentile(0.9), result.percentile(0.99), result.percentile(0.999),
+                    result.percentile(1));
+        }
+    }
+
+    /**
+     * Sends requests from {@link #CONCURRENCY} virtual threads for the given duration, each client sending
+     * its next request as soon as the previous one is answered.
+     *
+     * @param scenario builds the next request
+     * @param duration how long to send requests
+     * @return the latencies and errors of all clients
+     */
+    private Result drive(Function<ThreadLocalRandom, HttpRequest> scenario, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Result>> clients = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.add(executor.submit(() -> {
+                    Result result = new Result();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = scenario.apply(random);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            result.record(System.nanoTime() - start, response.statusCode());
+                        } catch (IOException exception) {
+                            result.record(System.nanoTime() - start, Result.IO_ERROR);
+                        }
+                    }
+                    return result;
+                }));
+            }
+        }
+        Result total = new Result();
+        for (Future<Result> result : clients) {
+            total.merge(result.get());
+        }
+        return total;
+    }
+
+    private HttpRequest signIn(int user) {
+        String body = "{\"login\":\"" + DataSeeder.login(user) + "\",\"password\":\"" + DataSeeder.PASSWORD + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (token != null)
+            builder.header("Authorization", "Bearer " + token);
+        return builder.build();
+    }
+
+    private String token(ThreadLocalRandom random) {
+        return tokens.get(random.nextInt(tokens.size()));
+    }
+
+    /**
+     * Latencies, in nanoseconds, and error counts of the requests of a scenario.
+     * Requests rejected with 503 SERVICE UNAVAILABLE are counted apart from the other errors.
+     */
+    private static final class Result {
+
+        /**
+         * Status recorded for a request that failed without a response.
+         */
+        static final int IO_ERROR = -1;
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private int rejected;
+
+        void record(long latency, int status) {
+            add(latency);
+            if (status == 503)
+                rejected++;
+            else if (status >= 400 || status == IO_ERROR)
+                errors++;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i]);
+            }
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        private void add(long latency) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latency;
+        }
+
+        int count() {
+            return count;
+        }
+
+        int errors() {
+            return errors;
+        }
+
+        int rejected() {
+            return rejected;
+        }
+
+        /**
+         * Gets a latency percentile.
+         *
+         * @param quantile the quantile, from 0 to 1
+         * @return the latency, in milliseconds
+         */
+        double percentile(double quantile) {
+            if (count == 0)
+                return 0;
+            Arrays.sort(latencies, 0, count);
+            int index = (int) Math.min(count - 1, Math.ceil(quantile * count) - 1);
+            return latencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -1,18 +1,20 @@
 package com.pitang.desafiopitangapi.services;
 
+import com.pitang.desafiopitangapi.dto.CarFilterDTO;
+import com.pitang.desafiopitangapi.dto.CarView;
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
 import com.pitang.desafiopitangapi.dto.UserDTO;
 import com.pitang.desafiopitangapi.exceptions.BusinessException;
-import com.pitang.desafiopitangapi.infra.security.TokenService;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
 import com.pitang.desafiopitangapi.model.Car;
 import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.repository.CarRepository;
-import com.pitang.desafiopitangapi.repository.UserRepository;
 import com.pitang.desafiopitangapi.service.CarService;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -20,9 +22,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.*;
 
+import static com.pitang.desafiopitangapi.infra.persistence.ConstraintViolationsTestSupport.uniqueViolation;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -36,15 +43,8 @@ public class CarServiceTest {
     @Mock
     private CarRepository carRepository;
 
-    @Mock
-    private TokenService tokenService;
-
-    @Mock
-    private UserRepository userRepository;
-
     private Car car;
     private User user;
-    private HttpServletRequest request;
 
     @BeforeEach
     public void setUp() {
@@ -59,20 +59,14 @@ public class CarServiceTest {
         user.setId(UUID.randomUUID().toString());
         user.setLogin("test_user");
         user.setCars(new ArrayList<>(List.of(car)));
-
-        request = mock(HttpServletRequest.class);
     }
 
     @Test
     @DisplayName("Register Car - Success")
     public void testRegister_Success() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
-        Mockito.when(carRepository.existsByLicensePlate(car.getLicensePlate())).thenReturn(false);
         Mockito.when(carRepository.save(car)).thenReturn(car);
 
-        Car savedCar = carService.register(car, request);
+        Car savedCar = carService.register(car, user);
 
         assertNotNull(savedCar);
         assertEquals(Car.class, savedCar.getClass());
@@ -81,14 +75,10 @@ public class CarServiceTest {
     @Test
     @DisplayName("Register Car - License Plate Already Exists")
     public void testRegister_LicensePlateExists() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
-
-        Mockito.when(carRepository.existsByLicensePlate(car.getLicensePlate())).thenReturn(true);
+        Mockito.when(carRepository.save(car)).thenThrow(uniqueViolation("PUBLIC.UK_CARS_LICENSE_PLATE_INDEX_1"));
 
         BusinessException exception = assertThrows(BusinessException.class, () -> {
-            carService.register(car, request);
+            carService.register(car, user);
         });
 
         assertEquals("License plate already exists", exception.getMessage());
@@ -96,31 +86,133 @@ public class CarServiceTest {
     }
 
 
+    @Test
+    @DisplayName("Register Car - Other Constraint Violation Not Translated")
+    public void testRegister_OtherConstraintViolation() {
+        DataIntegrityViolationException violation = uniqueViolation("PUBLIC.UK_CARS_LICENSE_PLATE_OWNER_INDEX_1");
+        Mockito.when(carRepository.save(car)).thenThrow(violation);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> carService.register(car, user));
+
+        assertSame(violation, exception);
+    }
+
     @Test
     @DisplayName("Find All Cars by Logged User - Success")
     public void testFindAllByLoggedUser() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
         Mockito.when(carRepository.findByUserId(user.getId())).thenReturn(user.getCars());
 
-        List<Car> cars = carService.findAllByLoggedUser(request);
+        List<Car> cars = carService.findAllByLoggedUser(user);
 
         assertNotNull(cars);
         assertEquals(ArrayList.class, cars.getClass());
         assertEquals(Car.class, cars.getFirst().getClass());
     }
 
+    @Test
+    @DisplayName("Register Car Batch - Success")
+    public void testRegisterAll_Success() {
+        Car other = new Car(null, 2020, "XYZ-9876", "Model Y", "Red", null, null);
+        List<Car> cars = List.of(car, other);
+        Mockito.when(carRepository.findExistingLicensePlates(Set.of("ABC-1234", "XYZ-9876"))).thenReturn(List.of());
+        Mockito.when(carRepository.saveAllAndFlush(cars)).thenReturn(cars);
+
+        List<Car> savedCars = carService.registerAll(cars, user);
+
+        assertEquals(2, savedCars.size());
+        assertEquals(user, other.getUser());
+        Mockito.verify(carRepository, Mockito.times(1)).findExistingLicensePlates(anyCollection());
+        Mockito.verify(carRepository, Mockito.never()).save(any(Car.class));
+    }
+
+    @Test
+    @DisplayName("Register Car Batch - License Plate Already Exists")
+    public void testRegisterAll_LicensePlateExists() {
+        Mockito.when(carRepository.findExistingLicensePlates(anyCollection())).thenReturn(List.of(car.getLicensePlate()));
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> carService.registerAll(List.of(car), user));
+
+        assertEquals("License plate already exists", exception.getMessage());
+        Mockito.verify(carRepository, Mockito.never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    @DisplayName("Register Car Batch - Repeated License Plate")
+    public void testRegisterAll_RepeatedLicensePlate() {
+        Car copy = new Car(null, 2020, car.getLicensePlate(), "Model Y", "Red", null, null);
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> carService.registerAll(List.of(car, copy), user));
+
+        assertEquals("Invalid fields", exception.getMessage());
+        assertEquals("[1].licensePlate", exception.getErrors().getFirst().field());
+        Mockito.verify(carRepository, Mockito.never()).findExistingLicensePlates(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Register Car Batch - Too Many Cars")
+    public void testRegisterAll_TooManyCars() {
+        List<Car> cars = Collections.nCopies(CarService.MAX_BATCH_SIZE + 1, car);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> carService.registerAll(cars, user));
+
+        assertEquals("Too many cars", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        Mockito.verifyNoInteractions(carRepository);
+    }
+
+    @Test
+    @DisplayName("Find Page of Cars by Logged User - Next Cursor")
+    public void testFindAllByLoggedUser_Page() {
+        CarView view = new CarView(car.getId(), car.getYear(), car.getLicensePlate(), car.getModel(), car.getColor(), car.getVersion());
+        CarView other = new CarView(UUID.randomUUID().toString(), 2023, "ABC-5678", "Model Y", "Red", 0L);
+        Mockito.when(carRepository.findViews(ArgumentMatchers.<Specification<Car>>any(), any(Sort.class), eq(2))).thenReturn(new ArrayList<>(List.of(view, other)));
+
+        CursorPageDTO<CarView> page = carService.findAllByLoggedUser(user, new CarFilterDTO(2020, null, null, null, "ABC"), "year", "asc", null, 1);
+
+        assertEquals(1, page.content().size());
+        assertEquals(view, page.content().getFirst());
+        String cursor = new String(Base64.getUrlDecoder().decode(page.nextCursor()));
+        assertEquals(car.getYear() + "|" + car.getId(), cursor);
+    }
+
+    @Test
+    @DisplayName("Find Page of Cars by Logged User - Invalid Sort")
+    public void testFindAllByLoggedUser_InvalidSort() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> carService.findAllByLoggedUser(user, null, "owner", "asc", null, 20));
+
+        assertEquals("Invalid sort", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    @DisplayName("Find Page of Cars by Logged User - Invalid Cursor")
+    public void testFindAllByLoggedUser_InvalidCursor() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> carService.findAllByLoggedUser(user, null, "year", "desc", "not-a-cursor", 20));
+
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Find Car View by ID and Logged User - Success")
+    public void testFindViewByIdAndLoggedUser() {
+        CarView view = new CarView(car.getId(), car.getYear(), car.getLicensePlate(), car.getModel(), car.getColor(), car.getVersion());
+        Mockito.when(carRepository.findViewByIdAndUserId(car.getId(), user.getId())).thenReturn(Optional.of(view));
+
+        CarView found = carService.findViewByIdAndLoggedUser(car.getId(), user);
+
+        assertEquals(car.getLicensePlate(), found.licensePlate());
+        Mockito.verify(carRepository, Mockito.never()).findByIdAndUserId(any(), any());
+    }
+
     @Test
     @DisplayName("Find Car by ID and Logged User - Car Not Found")
     public void testFindByIdAndLoggedUser_CarNotFound() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
         Mockito.when(carRepository.findByIdAndUserId(any(), any())).thenReturn(Optional.empty());
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            carService.findByIdAndLoggedUser(car.getId(), request);
+            carService.findByIdAndLoggedUser(car.getId(), user);
         });
 
         assertEquals("Car Not Found", exception.getMessage());
@@ -129,57 +221,81 @@ public class CarServiceTest {
     @Test
     @DisplayName("Car Updated - Success")
     public void testUpdate() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
-        Mockito.when(carRepository.existsByLicensePlate(anyString())).thenReturn(false);
-        Mockito.when(carRepository.save(car)).thenReturn(car);
+        Mockito.when(carRepository.findByIdAndUserId(car.getId(), user.getId())).thenReturn(Optional.of(car));
+        Car changes = new Car(null, 2020, "XYZ-9876", "Model Y", "Red", null, null);
 
-        Car updatedCar = carService.update(car.getId(), car, request);
+        Car updatedCar = carService.update(car.getId(), changes, user);
 
-        assertNotNull(updatedCar);
-        assertEquals(car.getLicensePlate(), updatedCar.getLicensePlate());
+        assertSame(car, updatedCar);
+        assertEquals("XYZ-9876", updatedCar.getLicensePlate());
+        assertEquals("Model Y", updatedCar.getModel());
+        assertEquals(2020, updatedCar.getYear());
+        Mockito.verify(carRepository, Mockito.times(1)).flush();
+        Mockito.verify(carRepository, Mockito.never()).save(any(Car.class));
     }
 
     @Test
     @DisplayName("Fail Update Car - Not Owned by User")
     public void testUpdate_CarNotOwnedByUser() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
-        user.setCars(List.of());
-        Mockito.when(carRepository.findByIdAndUserId(car.getId(), user.getId())).thenReturn(Optional.empty());
+        Mockito.when(carRepository.findByIdAndUserId("some_invalid_id", user.getId())).thenReturn(Optional.empty());
 
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> carService.update("some_invalid_id", car, request));
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> carService.update("some_invalid_id", car, user));
 
         assertEquals("Car Not Found", exception.getMessage());
-        Mockito.verify(carRepository, Mockito.never()).save(car);
+        Mockito.verify(carRepository, Mockito.never()).flush();
+    }
+
+    @Test
+    @DisplayName("Fail Update Car - Outdated Version")
+    public void testUpdate_OutdatedVersion() {
+        car.setVersion(2L);
+        Mockito.when(carRepository.findByIdAndUserId(car.getId(), user.getId())).thenReturn(Optional.of(car));
+        Car changes = new Car(null, 2020, "XYZ-9876", "Model Y", "Red", null, 1L);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> carService.update(car.getId(), changes, user));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        assertEquals("ABC-1234", car.getLicensePlate());
+        Mockito.verify(carRepository, Mockito.never()).flush();
     }
 
+    @Test
+    @DisplayName("Fail Update Car - Modified Concurrently")
+    public void testUpdate_ConcurrentModification() {
+        Mockito.when(carRepository.findByIdAndUserId(car.getId(), user.getId())).thenReturn(Optional.of(car));
+        Mockito.doThrow(new ObjectOptimisticLockingFailureException(Car.class, car.getId())).when(carRepository).flush();
 
+        BusinessException exception = assertThrows(BusinessException.class, () -> carService.update(car.getId(), car, user));
+
+        assertEquals("Car was modified by another request", exception.getMessage());
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    }
 
     @Test
     @DisplayName("Car Deleted - Success")
     public void testDelete() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
         Mockito.when(carRepository.findByIdAndUserId(car.getId(), user.getId())).thenReturn(Optional.of(car));
 
-        assertDoesNotThrow(() -> carService.delete(car.getId(), request));
+        assertDoesNotThrow(() -> carService.delete(car.getId(), user));
 
         Mockito.verify(carRepository, Mockito.times(1)).delete(car);
     }
 
+    @Test
+    @DisplayName("User's Cars Deleted in Bulk - Success")
+    public void testDeleteAllByUser() {
+        carService.deleteAllByUser(user.getId());
+
+        Mockito.verify(carRepository, Mockito.times(1)).deleteAllByUserIdInBulk(user.getId());
+        Mockito.verify(carRepository, Mockito.never()).delete(any(Car.class));
+    }
+
     @Test
     @DisplayName("Fail Delete Car - Not Owned by User")
     public void testDelete_CarNotOwnedByUser() {
-        Mockito.when(tokenService.recoverToken(request)).thenReturn("valid_token");
-        Mockito.when(tokenService.verifyToken("valid_token")).thenReturn(user.getLogin());
-        Mockito.when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
         Mockito.when(carRepository.findByIdAndUserId(car.getId(), user.getId())).thenReturn(Optional.empty());
 
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> carService.delete(car.getId(), request));
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> carService.delete(car.getId(), user));
 
         assertEquals("Car Not Found", exception.getMessage());
         Mockito.verify(carRepository, Mockito.never()).delete(car);
@@ -0,0 +1,115 @@
+package com.pitang.desafiopitangapi.services;
+
+import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
+import com.pitang.desafiopitangapi.repository.CarRepository;
+import com.pitang.desafiopitangapi.repository.UserRepository;
+import com.pitang.desafiopitangapi.service.CarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Updates cars against the database to check that the version of a car rejects lost updates,
+ * both when the client sends an outdated version and when another update commits between the read and the write.
+ */
+@SpringBootTest
+public class CarServiceVersionTest {
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Car car;
+
+    @BeforeEach
+    public void setUp() {
+        user = new User();
+        user.setFirstName("Car");
+        user.setLastName("Version");
+        user.setLogin("version-" + UUID.randomUUID());
+        user.setEmail(user.getLogin() + "@test.com");
+        user.setBirthday(new Date());
+        user.setPassword("password123");
+        user.setPhone("988888888");
+        user.setCreatedAt(LocalDate.now());
+        userRepository.save(user);
+
+        car = carService.register(new Car(null, 2020, licensePlate(), "Model X", "Blue", null, null), user);
+    }
+
+    @Test
+    @DisplayName("Update with the current version - Version incremented")
+    public void testUpdate_CurrentVersion() {
+        Car updated = carService.update(car.getId(), changes("Model Y", car.getVersion()), user);
+
+        assertEquals(car.getVersion() + 1, updated.getVersion());
+        assertEquals("Model Y", carRepository.findById(car.getId()).orElseThrow().getModel());
+    }
+
+    @Test
+    @DisplayName("Update with an outdated version - Conflict, newer update kept")
+    public void testUpdate_OutdatedVersion() {
+        long readVersion = car.getVersion();
+        carService.update(car.getId(), changes("Model B", readVersion), user);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> carService.update(car.getId(), changes("Model A", readVersion), user));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        assertEquals("Model B", carRepository.findById(car.getId()).orElseThrow().getModel());
+    }
+
+    @Test
+    @DisplayName("Update committed between the read and the write - Conflict, newer update kept")
+    public void testUpdate_ConcurrentUpdate() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> transaction.executeWithoutResult(status -> {
+            carRepository.findByIdAndUserId(car.getId(), user.getId()).orElseThrow();
+            CompletableFuture.runAsync(() -> carService.update(car.getId(), changes("Model B", null), user)).join();
+            carService.update(car.getId(), changes("Model A", null), user);
+        }));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        assertEquals("Model B", carRepository.findById(car.getId()).orElseThrow().getModel());
+    }
+
+    /**
+     * Builds the body of an update changing the model of the car.
+     *
+     * @param model the new model
+     * @param version the version read by the client, or {@code null} to send none
+     * @return the car with the new values
+     */
+    private Car changes(String model, Long version) {
+        return new Car(null, car.getYear(), car.getLicensePlate(), model, car.getColor(), null, version);
+    }
+
+    private static String licensePlate() {
+        return String.format("VER-%04d", ThreadLocalRandom.current().nextInt(10000));
+    }
+}
@@ -0,0 +1,62 @@
+package com.pitang.desafiopitangapi.services;
+
+import com.pitang.desafiopitangapi.repository.UserRepository;
+import com.pitang.desafiopitangapi.service.LastLoginWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LastLoginWriterTest {
+
+    @InjectMocks
+    private LastLoginWriter lastLoginWriter;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Captor
+    private ArgumentCaptor<Collection<String>> ids;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @DisplayName("Sign-ins Coalesced in a Single Update")
+    void testFlush_Coalesced() {
+        LocalDate today = LocalDate.now();
+        lastLoginWriter.record("1", today);
+        lastLoginWriter.record("2", today);
+        lastLoginWriter.record("1", today);
+
+        lastLoginWriter.flush();
+
+        verify(userRepository, times(1)).updateLastLogin(ids.capture(), eq(today));
+        assertEquals(Set.of("1", "2"), Set.copyOf(ids.getValue()));
+
+        lastLoginWriter.flush();
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Failed Write - Retried on the Next Flush")
+    void testFlush_Retried() {
+        LocalDate today = LocalDate.now();
+        lastLoginWriter.record("1", today);
+        when(userRepository.updateLastLogin(anyCollection(), eq(today))).thenThrow(new RuntimeException("Database down")).thenReturn(1);
+
+        lastLoginWriter.flush();
+        lastLoginWriter.flush();
+
+        verify(userRepository, times(2)).updateLastLogin(anyCollection(), eq(today));
+    }
+}
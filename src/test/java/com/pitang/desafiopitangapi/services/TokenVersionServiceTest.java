@@ -0,0 +1,82 @@
+package com.pitang.desafiopitangapi.services;
+
+import com.pitang.desafiopitangapi.repository.UserRepository;
+import com.pitang.desafiopitangapi.service.TokenVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenVersionServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = new TokenVersionService(userRepository, 100, 300);
+    }
+
+    @Test
+    @DisplayName("Unknown user - Version loaded once from the database")
+    void testLoadedOnMiss() {
+        when(userRepository.findTokenVersionById("id")).thenReturn(Optional.of(2));
+
+        assertTrue(tokenVersionService.isCurrent("id", 2));
+        assertFalse(tokenVersionService.isCurrent("id", 1));
+
+        verify(userRepository, times(1)).findTokenVersionById("id");
+    }
+
+    @Test
+    @DisplayName("User not in the database - Every token rejected")
+    void testMissingUser() {
+        when(userRepository.findTokenVersionById("id")).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersionService.isCurrent("id", 0));
+        assertFalse(tokenVersionService.isCurrent("id", -1));
+    }
+
+    @Test
+    @DisplayName("Updated user - New version replaces the cached one")
+    void testUpdate() {
+        when(userRepository.findTokenVersionById("id")).thenReturn(Optional.of(1));
+        assertTrue(tokenVersionService.isCurrent("id", 1));
+
+        tokenVersionService.update("id", 2);
+
+        assertFalse(tokenVersionService.isCurrent("id", 1));
+        assertTrue(tokenVersionService.isCurrent("id", 2));
+        verify(userRepository, times(1)).findTokenVersionById("id");
+    }
+
+    @Test
+    @DisplayName("Deleted user - Every token revoked without querying the database")
+    void testRevoke() {
+        tokenVersionService.update("id", 3);
+
+        tokenVersionService.revoke("id");
+
+        assertFalse(tokenVersionService.isCurrent("id", 3));
+        assertFalse(tokenVersionService.isCurrent("id", -1));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Expired entry - Version loaded again from the database")
+    void testExpiration() throws Exception {
+        tokenVersionService = new TokenVersionService(userRepository, 100, 1);
+        when(userRepository.findTokenVersionById("id")).thenReturn(Optional.of(2));
+        tokenVersionService.update("id", 1);
+        assertTrue(tokenVersionService.isCurrent("id", 1));
+
+        Thread.sleep(1100);
+
+        assertTrue(tokenVersionService.isCurrent("id", 2));
+        verify(userRepository, times(1)).findTokenVersionById("id");
+    }
+}
@@ -0,0 +1,103 @@
+package com.pitang.desafiopitangapi.services;
+
+import com.pitang.desafiopitangapi.dto.FieldErrorDTO;
+import com.pitang.desafiopitangapi.dto.UserDTO;
+import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
+import com.pitang.desafiopitangapi.model.Car;
+import com.pitang.desafiopitangapi.model.User;
+import com.pitang.desafiopitangapi.repository.UserRepository;
+import com.pitang.desafiopitangapi.service.CarService;
+import com.pitang.desafiopitangapi.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registers users with cars against the database to check that a rejected car never leaves the user saved,
+ * whether the car is rejected by the validation or by the license plates already in the database.
+ */
+@SpringBootTest
+public class UserServiceRegisterTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserDTO userDTO;
+
+    @BeforeEach
+    public void setUp() {
+        userDTO = new UserDTO();
+        userDTO.setFirstName("User");
+        userDTO.setLastName("Register");
+        userDTO.setLogin("register-" + UUID.randomUUID());
+        userDTO.setEmail(userDTO.getLogin() + "@test.com");
+        userDTO.setBirthday(new Date());
+        userDTO.setPassword("password123");
+        userDTO.setPhone("988888888");
+    }
+
+    @Test
+    @DisplayName("License plate repeated in the request - Rejected before the user is saved")
+    public void testRegister_RepeatedLicensePlate() {
+        String licensePlate = licensePlate();
+        userDTO.setCars(List.of(car(licensePlate), car(licensePlate)));
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> userService.register(userDTO));
+
+        assertEquals(List.of("cars[1].licensePlate"), exception.getErrors().stream().map(FieldErrorDTO::field).toList());
+        assertTrue(userRepository.findByLogin(userDTO.getLogin()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("License plate already in use - User rolled back")
+    public void testRegister_LicensePlateExists() {
+        String licensePlate = licensePlate();
+        carService.register(car(licensePlate), owner());
+        userDTO.setCars(List.of(car(licensePlate)));
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> userService.register(userDTO));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals("License plate already exists", exception.getMessage());
+        assertTrue(userRepository.findByLogin(userDTO.getLogin()).isEmpty());
+    }
+
+    private User owner() {
+        User owner = new User();
+        owner.setFirstName("Plate");
+        owner.setLastName("Owner");
+        owner.setLogin("owner-" + UUID.randomUUID());
+        owner.setEmail(owner.getLogin() + "@test.com");
+        owner.setBirthday(new Date());
+        owner.setPassword("password123");
+        owner.setPhone("988888888");
+        owner.setCreatedAt(LocalDate.now());
+        return userRepository.save(owner);
+    }
+
+    private static Car car(String licensePlate) {
+        return new Car(null, 2020, licensePlate, "Model X", "Blue", null, null);
+    }
+
+    private static String licensePlate() {
+        return String.format("REG-%04d", ThreadLocalRandom.current().nextInt(10000));
+    }
+}
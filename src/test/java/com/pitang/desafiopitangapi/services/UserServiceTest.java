@@ -1,25 +1,33 @@
 package com.pitang.desafiopitangapi.services;
 
+import com.pitang.desafiopitangapi.dto.CursorPageDTO;
+import com.pitang.desafiopitangapi.dto.FieldErrorDTO;
 import com.pitang.desafiopitangapi.dto.UserDTO;
+import com.pitang.desafiopitangapi.dto.UserSummary;
 import com.pitang.desafiopitangapi.exceptions.BusinessException;
+import com.pitang.desafiopitangapi.exceptions.ValidationException;
+import com.pitang.desafiopitangapi.infra.validation.ValidationErrors;
 import com.pitang.desafiopitangapi.model.User;
 import com.pitang.desafiopitangapi.repository.UserRepository;
-import com.pitang.desafiopitangapi.infra.security.TokenService;
 import com.pitang.desafiopitangapi.model.Car;
 import com.pitang.desafiopitangapi.service.CarService;
+import com.pitang.desafiopitangapi.service.LastLoginWriter;
+import com.pitang.desafiopitangapi.service.TokenVersionService;
 import com.pitang.desafiopitangapi.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import jakarta.servlet.http.HttpServletRequest;
-
+import java.time.LocalDate;
 import java.util.*;
 
+import static com.pitang.desafiopitangapi.infra.persistence.ConstraintViolationsTestSupport.uniqueViolation;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -38,13 +46,14 @@ class UserServiceTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private TokenService tokenService;
+    private LastLoginWriter lastLoginWriter;
 
     @Mock
-    private HttpServletRequest request;
+    private TokenVersionService tokenVersionService;
 
     private UserDTO userDTO;
     private User user;
+    private UserSummary summary;
     private Car car;
 
     @BeforeEach
@@ -72,50 +81,170 @@ class UserServiceTest {
         userDTO.setCars(cars);
 
         user = UserDTO.toEntity(userDTO);
+        summary = new UserSummary(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getBirthday(),
+                user.getLogin(), user.getPhone(), user.getCreatedAt(), user.getLastLogin());
     }
 
     @Test
     @DisplayName("User Registered - Success")
     void testRegister_Success() throws BusinessException {
-        when(userRepository.existsByLogin(userDTO.getLogin())).thenReturn(false);
-        when(userRepository.existsByEmail(userDTO.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(userDTO.getPassword())).thenReturn("encoded_password");
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         UserDTO registeredUser = userService.register(userDTO);
 
         assertNotNull(registeredUser);
         assertEquals("Test", registeredUser.getFirstName());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(carService, times(1)).registerAll(eq(userDTO.getCars()), any(User.class));
+        verify(tokenVersionService, times(1)).update(any(), eq(0));
     }
 
     @Test
     @DisplayName("Register User - Login already Exists")
     void testRegister_LoginAlreadyExists() {
-        when(userRepository.existsByLogin(userDTO.getLogin())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation("PUBLIC.UK_USERS_LOGIN_INDEX_4"));
 
         BusinessException exception = assertThrows(BusinessException.class, () -> userService.register(userDTO));
 
         assertEquals("Login already exists", exception.getMessage());
         assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verify(carService, never()).registerAll(anyList(), any(User.class));
+        verifyNoInteractions(tokenVersionService);
+    }
+
+    @Test
+    @DisplayName("Register User - Email already Exists")
+    void testRegister_EmailAlreadyExists() {
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation("PUBLIC.UK_USERS_EMAIL_INDEX_4"));
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> userService.register(userDTO));
+
+        assertEquals("Email already exists", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    @DisplayName("Register User - All Invalid Fields Reported")
+    void testRegister_InvalidFields() {
+        userDTO.setFirstName("");
+        userDTO.setEmail("test");
+        car.setLicensePlate("abc-1234");
+        car.setColor(null);
+        doCallRealMethod().when(carService).validateCarList(anyList(), any(ValidationErrors.class), anyString());
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> userService.register(userDTO));
+
+        assertEquals("Missing fields", exception.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals(List.of("firstName", "email", "cars[0].licensePlate", "cars[0].color"),
+                exception.getErrors().stream().map(FieldErrorDTO::field).toList());
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
+
+    @Test
+    @DisplayName("Register User - Repeated License Plate Reported Before Saving")
+    void testRegister_RepeatedLicensePlate() {
+        Car copy = new Car(null, 2020, car.getLicensePlate(), "Model Y", "Red", null, null);
+        userDTO.setCars(List.of(car, copy));
+        doCallRealMethod().when(carService).validateCarList(anyList(), any(ValidationErrors.class), anyString());
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> userService.register(userDTO));
+
+        assertEquals(List.of("cars[1].licensePlate"), exception.getErrors().stream().map(FieldErrorDTO::field).toList());
+        verifyNoInteractions(userRepository, passwordEncoder, tokenVersionService);
+    }
+
+    @Test
+    @DisplayName("Last Login Updated - Recorded for the Background Writer")
+    void testUpdateLastLogin_Recorded() {
+        user.setLastLogin(LocalDate.now().minusDays(1));
+
+        userService.updateLastLogin(user);
+
+        assertEquals(LocalDate.now(), user.getLastLogin());
+        verify(lastLoginWriter).record(user.getId(), LocalDate.now());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Last Login Already Today - Skipped")
+    void testUpdateLastLogin_Unchanged() {
+        user.setLastLogin(LocalDate.now());
+
+        userService.updateLastLogin(user);
+
+        verifyNoInteractions(lastLoginWriter, userRepository);
+    }
+
+    @Test
+    @DisplayName("Outdated Password Hash - Upgraded")
+    void testUpgradePasswordEncoding_Outdated() {
+        user.setPassword("old_hash");
+        when(passwordEncoder.upgradeEncoding("old_hash")).thenReturn(true);
+        when(passwordEncoder.encode("test")).thenReturn("new_hash");
+
+        userService.upgradePasswordEncoding(user, "test");
+
+        assertEquals("new_hash", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    @DisplayName("Current Password Hash - Kept")
+    void testUpgradePasswordEncoding_Current() {
+        user.setPassword("hash");
+        when(passwordEncoder.upgradeEncoding("hash")).thenReturn(false);
+
+        userService.upgradePasswordEncoding(user, "test");
+
+        assertEquals("hash", user.getPassword());
+        verify(passwordEncoder, never()).encode(any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Users Page Found - Success")
+    void testFindAll_Success() {
+        UserSummary other = new UserSummary(user.getId() + "-next", "Other", "User", "other@test.com", new Date(),
+                "other", "988888888", LocalDate.now(), null);
+        when(userRepository.findSummariesByIdGreaterThan(eq(""), any())).thenReturn(List.of(summary, other));
+
+        CursorPageDTO<UserDTO> page = userService.findAll(null, 1);
+
+        assertEquals(1, page.content().size());
+        assertEquals(user.getId(), page.content().getFirst().getId());
+        assertEquals(user.getId(), page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Users Page Found - Size Limited")
+    void testFindAll_SizeLimited() {
+        when(userRepository.findSummariesByIdGreaterThan(eq(""), any())).thenReturn(List.of(summary));
+
+        CursorPageDTO<UserDTO> page = userService.findAll(null, 10_000);
+
+        assertNull(page.nextCursor());
+        verify(userRepository).findSummariesByIdGreaterThan("", PageRequest.of(0, UserService.MAX_PAGE_SIZE + 1, Sort.by("id")));
     }
 
     @Test
     @DisplayName("User Found By Id - Success")
     void testFindById_Success() {
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.findSummaryById(user.getId())).thenReturn(Optional.of(summary));
 
         UserDTO foundUser = userService.findById(user.getId());
 
         assertNotNull(foundUser);
         assertEquals("Test", foundUser.getFirstName());
-        verify(userRepository, times(1)).findById(user.getId());
+        verify(userRepository, times(1)).findSummaryById(user.getId());
+        verify(userRepository, never()).findById(anyString());
     }
 
     @Test
     @DisplayName("Find By Id - User Not Found")
     void testFindById_UserNotFound() {
-        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+        when(userRepository.findSummaryById(user.getId())).thenReturn(Optional.empty());
         BadCredentialsException exception = assertThrows(BadCredentialsException.class, () -> userService.findById(user.getId()));
 
         assertEquals("Invalid Id", exception.getMessage());
@@ -124,31 +253,29 @@ class UserServiceTest {
     @Test
     @DisplayName("User Found By Logged - Success")
     void testFindByMe_Success() {
-        String token = "token";
-
-        when(tokenService.recoverToken(request)).thenReturn(token);
-        when(tokenService.verifyToken(token)).thenReturn(user.getLogin());
-        when(userRepository.findByLogin(user.getLogin())).thenReturn(Optional.of(user));
+        when(userRepository.findByLoginWithCars(user.getLogin())).thenReturn(Optional.of(user));
 
-        UserDTO userDTO = userService.findByMe(request);
+        UserDTO userDTO = userService.findByMe(user);
 
         assertNotNull(userDTO);
         assertEquals("Test", userDTO.getFirstName());
-        verify(tokenService, times(1)).recoverToken(request);
-        verify(tokenService, times(1)).verifyToken(token);
+        assertEquals(1, userDTO.getCars().size());
+        verify(userRepository, never()).findByLogin(anyString());
+        verify(carService, never()).findAllByLoggedUser(any(User.class));
     }
 
     @Test
     @DisplayName("User Updated - Success")
     void testUpdate_Success() {
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         UserDTO updatedUser = userService.update(user.getId(), userDTO);
 
         assertEquals("Test", updatedUser.getFirstName());
         assertEquals("Test", updatedUser.getLastName());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(tokenVersionService, times(1)).update(user.getId(), user.getTokenVersion() + 1);
     }
 
     @Test
@@ -169,7 +296,8 @@ class UserServiceTest {
         userService.delete(user.getId());
 
         verify(userRepository, times(1)).delete(user);
-        verify(carService, times(1)).deleteByCar(any(Car.class));
+        verify(carService, times(1)).deleteAllByUser(user.getId());
+        verify(tokenVersionService, times(1)).revoke(user.getId());
     }
 
     @Test